@@ -33,6 +33,9 @@ dependencies {
 	implementation("org.reflections:reflections:0.10.2")
 	implementation("org.jetbrains.kotlin:kotlin-reflect:2.1.0")
 	implementation("org.jetbrains.kotlinx:kotlinx-serialization-json:1.7.1")
+	api("org.jetbrains.kotlinx:kotlinx-coroutines-core:1.10.1")
+
+	testImplementation(kotlin("test"))
 }
 
 java {
@@ -59,6 +62,10 @@ tasks.withType<JavaCompile> {
 	options.release.set(17)
 }
 
+tasks.test {
+	useJUnitPlatform()
+}
+
 tasks.named<Jar>("jar") {
 	duplicatesStrategy = DuplicatesStrategy.EXCLUDE
 	archiveClassifier.set("")
@@ -9,6 +9,7 @@ public interface IEventHandler {
 
     /**
      * Please write a handler initialization code.
+     * Handlers that only use {@link Subscribe} methods do not need to override this.
      *
      * <p>For example:
      * <pre>{@code
@@ -27,7 +28,8 @@ public interface IEventHandler {
      * }
      * }</pre>
      */
-    void initHandlers();
+    default void initHandlers() {
+    }
 
     /**
      * Handles events for this handler.
@@ -58,11 +60,12 @@ public interface IEventHandler {
     }
 
     /**
-     * Unregisters this event handler and all its children.
+     * Unregisters this event handler and all its children, removing every hook they own from the EventBus.
      */
     default void unregister() {
         for (IEventHandler child : children()) {
             child.unregister();
         }
+        EventBus.unregisterHandler(this);
     }
 }
\ No newline at end of file
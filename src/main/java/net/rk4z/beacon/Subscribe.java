@@ -0,0 +1,57 @@
+package net.rk4z.beacon;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method of an {@link IEventHandler} as a handler for the event type of its single parameter.
+ *
+ * <p>Annotated methods are discovered once per class and bound to generated {@link Handler} or
+ * {@link ReturnableHandler} implementations, so invoking them is a direct call. A method whose
+ * parameter is a {@link ReturnableEvent} and which returns a value is registered as a returnable handler.
+ *
+ * <p>For example:
+ * <pre>{@code
+ * public class MyHandler implements IEventHandler {
+ *   @Subscribe(priority = Priority.HIGH)
+ *   public void onMyEvent(MyEvent event) {
+ *     System.out.println("This is a handler for MyEvent: " + event.getMessage());
+ *   }
+ * }
+ * }</pre>
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Subscribe {
+    /**
+     * The priority of the handler.
+     *
+     * @return the priority
+     */
+    Priority priority() default Priority.NORMAL;
+
+    /**
+     * Whether the handler runs even while its {@link IEventHandler} does not handle events.
+     *
+     * @return true to ignore the handler condition
+     */
+    boolean ignoresCondition() default false;
+
+    /**
+     * The timeout for the handler in milliseconds, or a negative value for no timeout.
+     *
+     * @return the timeout
+     */
+    long timeout() default -1;
+
+    /**
+     * Whether the handler still runs after the event has been cancelled by an earlier handler.
+     *
+     * @return true to receive cancelled events
+     */
+    boolean receivesCanceled() default false;
+}
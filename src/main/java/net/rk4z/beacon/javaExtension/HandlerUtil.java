@@ -13,32 +13,35 @@ import java.util.function.Supplier;
 public class HandlerUtil {
 
     /**
-     * Registers a handler for events of type T.
+     * Registers a handler for events of type T, including subclasses and implementors of T.
      *
-     * @param <T> the type of the event to be handled
+     * @param <T> the type of the event to be handled, or a supertype shared by the events
      * @param instance the event handler instance
      * @param eventType the class type of the event
-     * @param condition a supplier providing the condition to be checked
+     * @param condition a supplier providing the condition to be checked, or null to always run
      * @param ignoresCondition whether the condition should be ignored
      * @param priority the priority of the event handler
      * @param handler the handler to process the event
      * @param timeout the timeout for the event handler
+     * @param receivesCanceled whether the handler still runs after the event has been cancelled
+     * @return the subscription of the registered hook
      * @throws IllegalStateException if the listener is not registered
      */
-    public static <T extends Event> Unit handler(
+    public static <T> Subscription handler(
             @NotNull IEventHandler instance,
             Class<T> eventType,
             Supplier<Boolean> condition,
             boolean ignoresCondition,
             Priority priority,
             Handler<T> handler,
-            Long timeout
+            Long timeout,
+            boolean receivesCanceled
     ) {
         Class<?> clazz = instance.getClass();
 
-        Function0<Boolean> kc = toKotlinFunction0(condition);
+        Function0<Boolean> kc = condition != null ? toKotlinFunction0(condition) : null;
 
-        EventBus.registerEventHook(
+        return EventBus.registerEventHook(
                 eventType,
                 new EventHook<>(
                         instance,
@@ -46,11 +49,35 @@ public class HandlerUtil {
                         ignoresCondition,
                         priority,
                         kc,
-                        timeout
+                        timeout,
+                        receivesCanceled
                 )
         );
+    }
 
-        return Unit.INSTANCE;
+    /**
+     * Registers a handler for events of type T that does not run once the event has been cancelled.
+     *
+     * @param <T> the type of the event to be handled, or a supertype shared by the events
+     * @param instance the event handler instance
+     * @param eventType the class type of the event
+     * @param condition a supplier providing the condition to be checked, or null to always run
+     * @param ignoresCondition whether the condition should be ignored
+     * @param priority the priority of the event handler
+     * @param handler the handler to process the event
+     * @param timeout the timeout for the event handler
+     * @return the subscription of the registered hook
+     */
+    public static <T> Subscription handler(
+            @NotNull IEventHandler instance,
+            Class<T> eventType,
+            Supplier<Boolean> condition,
+            boolean ignoresCondition,
+            Priority priority,
+            Handler<T> handler,
+            Long timeout
+    ) {
+        return handler(instance, eventType, condition, ignoresCondition, priority, handler, timeout, false);
     }
 
     /**
@@ -59,13 +86,14 @@ public class HandlerUtil {
      * @param <T> the type of the event to be handled
      * @param instance the event handler instance
      * @param handler the handler to process the event
+     * @return the subscription of the registered hook
      */
-    public static <T extends Event> Unit handler(
+    public static <T> Subscription handler(
             @NotNull IEventHandler instance,
             Class<T> eventType,
             Handler<T> handler
     ) {
-        return handler(instance, eventType, () -> true, false, Priority.NORMAL, handler, null);
+        return handler(instance, eventType, null, false, Priority.NORMAL, handler, null, false);
     }
 
     /**
@@ -74,14 +102,15 @@ public class HandlerUtil {
      * @param <T> the type of the event to be handled
      * @param <R> the type of the return value
      * @param instance the event handler instance
-     * @param condition a supplier providing the condition to be checked
+     * @param condition a supplier providing the condition to be checked, or null to always run
      * @param ignoresCondition whether the condition should be ignored
      * @param priority the priority of the event handler
      * @param handler the handler to process the event
      * @param timeout the timeout for the event handler
+     * @return the subscription of the registered hook
      * @throws IllegalStateException if the listener is not registered
      */
-    public static <T extends ReturnableEvent<R>, R> Unit returnableHandler(
+    public static <T extends ReturnableEvent<R>, R> Subscription returnableHandler(
             @NotNull IEventHandler instance,
             Class<T> eventType,
             Supplier<Boolean> condition,
@@ -92,9 +121,9 @@ public class HandlerUtil {
     ) {
         Class<?> clazz = instance.getClass();
 
-        Function0<Boolean> kc = toKotlinFunction0(condition);
+        Function0<Boolean> kc = condition != null ? toKotlinFunction0(condition) : null;
 
-        EventBus.registerReturnableEventHook(
+        return EventBus.registerReturnableEventHook(
                 eventType,
                 new ReturnableEventHook<>(
                         instance,
@@ -105,8 +134,6 @@ public class HandlerUtil {
                         timeout
                 )
         );
-
-        return Unit.INSTANCE;
     }
 
     /**
@@ -116,13 +143,14 @@ public class HandlerUtil {
      * @param <R> the type of the return value
      * @param instance the event handler instance
      * @param handler the handler to process the event
+     * @return the subscription of the registered hook
      */
-    public static <T extends ReturnableEvent<R>, R> Unit returnableHandler(
+    public static <T extends ReturnableEvent<R>, R> Subscription returnableHandler(
             IEventHandler instance,
             Class<T> eventType,
             ReturnableHandler<T, R> handler
     ) {
-        return returnableHandler(instance, eventType, () -> true, false, Priority.NORMAL, handler, null);
+        return returnableHandler(instance, eventType, null, false, Priority.NORMAL, handler, null);
     }
 
     @NotNull
@@ -133,7 +161,7 @@ public class HandlerUtil {
 
     @NotNull
     @Contract(pure = true)
-    static <T extends Event> Function1<T, Unit> toKotlinFunction1(Handler<T> handler) {
+    static <T> Function1<T, Unit> toKotlinFunction1(Handler<T> handler) {
         return event -> {
             handler.handle(event);
             return Unit.INSTANCE;
@@ -0,0 +1,112 @@
+package net.rk4z.beacon.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Annotation processor that writes an index of every concrete {@code IEventHandler} implementation
+ * in the compilation to {@value #INDEX_RESOURCE}.
+ *
+ * <p>{@code EventBus.initialize} reads the index instead of scanning the classpath, and only falls back
+ * to a classpath scan for packages without indexed handlers. Add the library to the annotation
+ * processor path to enable it, for example {@code annotationProcessor("net.ririfa:beacon:<version>")}
+ * in Gradle, or {@code kapt} for Kotlin sources.
+ */
+@SupportedAnnotationTypes("*")
+public class HandlerIndexProcessor extends AbstractProcessor {
+    /**
+     * The classpath resource holding the handler index, one binary class name per line.
+     */
+    public static final String INDEX_RESOURCE = "META-INF/beacon/event-handlers";
+
+    private static final String HANDLER_INTERFACE = "net.rk4z.beacon.IEventHandler";
+
+    private final Set<String> handlers = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement handlerInterface = processingEnv.getElementUtils().getTypeElement(HANDLER_INTERFACE);
+        if (handlerInterface == null) {
+            return false;
+        }
+
+        TypeMirror handlerType = processingEnv.getTypeUtils().erasure(handlerInterface.asType());
+        for (TypeElement type : ElementFilter.typesIn(roundEnv.getRootElements())) {
+            collect(type, handlerType);
+        }
+
+        if (roundEnv.processingOver()) {
+            writeIndex();
+        }
+        return false;
+    }
+
+    private void collect(TypeElement type, TypeMirror handlerType) {
+        if (isInstantiableHandler(type, handlerType)) {
+            handlers.add(processingEnv.getElementUtils().getBinaryName(type).toString());
+        }
+
+        for (TypeElement nested : ElementFilter.typesIn(type.getEnclosedElements())) {
+            if (nested.getModifiers().contains(Modifier.STATIC)) {
+                collect(nested, handlerType);
+            }
+        }
+    }
+
+    private boolean isInstantiableHandler(TypeElement type, TypeMirror handlerType) {
+        if (type.getKind() != ElementKind.CLASS || type.getModifiers().contains(Modifier.ABSTRACT)) {
+            return false;
+        }
+        if (!processingEnv.getTypeUtils().isAssignable(processingEnv.getTypeUtils().erasure(type.asType()), handlerType)) {
+            return false;
+        }
+
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void writeIndex() {
+        if (handlers.isEmpty()) {
+            return;
+        }
+
+        Filer filer = processingEnv.getFiler();
+        try {
+            FileObject resource = filer.createResource(StandardLocation.CLASS_OUTPUT, "", INDEX_RESOURCE);
+            try (Writer writer = resource.openWriter()) {
+                for (String handler : handlers) {
+                    writer.write(handler);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to write " + INDEX_RESOURCE + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package net.rk4z.beacon
+
+import java.util.concurrent.ConcurrentLinkedDeque
+import java.util.concurrent.Executor
+import java.util.concurrent.Future
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.Semaphore
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.LongAdder
+
+/**
+ * What the [EventBus] does with an asynchronous task when its queue is full.
+ */
+enum class OverflowPolicy {
+    /**
+     * Block the posting thread until a queued task starts.
+     * A post made from one of the bus's worker threads runs the task on that thread instead, since
+     * the worker could otherwise wait for a slot that only the workers can free. A delayed post
+     * from a worker is queued beyond the capacity.
+     */
+    BLOCK,
+
+    /**
+     * Run the task on the posting thread.
+     * A delayed post cannot run yet, so it is handled as with [BLOCK].
+     */
+    CALLER_RUNS,
+
+    /**
+     * Discard the new task.
+     */
+    DROP_NEWEST,
+
+    /**
+     * Discard the oldest task that has not started yet and queue the new one.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Throw a [QueueOverflowException] from the posting thread.
+     */
+    FAIL
+}
+
+/**
+ * A snapshot of the asynchronous queue of the [EventBus].
+ *
+ * @property capacity The maximum number of queued tasks.
+ * @property queued The number of tasks waiting to start, including delayed tasks that are not due yet.
+ * @property policy The overflow policy of the queue.
+ * @property overflowed The number of tasks the policy was applied to since initialization.
+ */
+data class QueueStats(
+    val capacity: Int,
+    val queued: Int,
+    val policy: OverflowPolicy,
+    val overflowed: Long
+)
+
+/**
+ * A task that is told when a [BoundedExecutor] discards it, so whoever waits for it can be notified.
+ */
+internal interface DiscardableTask : Runnable {
+    /**
+     * Called instead of [run] when the task is discarded by its overflow policy.
+     */
+    fun discarded()
+}
+
+/**
+ * Limits the number of tasks waiting to start on [delegate] and applies an [OverflowPolicy] once
+ * the limit is reached.
+ *
+ * Admission is a permit of a [Semaphore], released when a task starts, so the common path takes no
+ * lock. Queued tasks are only tracked in a deque under [OverflowPolicy.DROP_OLDEST], where they can
+ * be claimed and discarded before a worker picks them up, and each task leaves the deque when it is
+ * claimed, so a delayed task that is not due yet never holds the tasks behind it in memory.
+ * [OverflowPolicy.BLOCK] relies on
+ * [delegate] being a [WorkerExecutor] to recognize posts made by its own tasks.
+ *
+ * Delayed tasks take their place in the queue when they are scheduled, so the policy is applied on
+ * the posting thread and [scheduler] only hands due tasks to [delegate], which never blocks it.
+ *
+ * @property capacity The maximum number of tasks waiting to start.
+ * @property policy What to do with a task once [capacity] tasks are waiting.
+ */
+internal class BoundedExecutor(
+    private val delegate: Executor,
+    private val scheduler: ScheduledExecutorService,
+    val capacity: Int,
+    val policy: OverflowPolicy
+) : Executor {
+    private val permits = Semaphore(capacity)
+    private val queued = ConcurrentLinkedDeque<Task>()
+    private val overflowed = LongAdder()
+
+    init {
+        require(capacity > 0) { "capacity must be positive" }
+    }
+
+    override fun execute(command: Runnable) {
+        val task = admit(command, false) ?: return
+        delegate.execute(task)
+    }
+
+    /**
+     * Runs [command] on the delegate after [delay]. The task is admitted now and holds its place in
+     * the queue until it starts.
+     *
+     * @throws QueueOverflowException If the queue is full and the policy is [OverflowPolicy.FAIL].
+     */
+    fun schedule(command: Runnable, delay: Long, unit: TimeUnit) {
+        val task = admit(command, true) ?: return
+        task.timer = scheduler.schedule({ delegate.execute(task) }, delay, unit)
+    }
+
+    /**
+     * Takes a place in the queue for [command], applying the policy if the queue is full.
+     *
+     * @param delayed Whether the task runs later, in which case it cannot run on the posting thread.
+     * @return The task to hand to the delegate, or null if the policy already handled the command.
+     */
+    private fun admit(command: Runnable, delayed: Boolean): Task? {
+        var permitted = true
+        if (!permits.tryAcquire()) {
+            overflowed.increment()
+            when (policy) {
+                OverflowPolicy.BLOCK, OverflowPolicy.CALLER_RUNS -> when {
+                    !delayed && (policy == OverflowPolicy.CALLER_RUNS || WorkerExecutor.isWorkerThread) -> {
+                        command.run()
+                        return null
+                    }
+                    WorkerExecutor.isWorkerThread -> permitted = false
+                    else -> permits.acquire()
+                }
+                OverflowPolicy.DROP_NEWEST -> {
+                    (command as? DiscardableTask)?.discarded()
+                    return null
+                }
+                OverflowPolicy.DROP_OLDEST -> {
+                    while (true) {
+                        val oldest = queued.pollFirst()
+                        if (oldest == null) {
+                            if (permits.tryAcquire()) break
+                            Thread.onSpinWait()
+                        } else if (oldest.compareAndSet(false, true)) {
+                            // The discarded task's permit is handed to the new one.
+                            oldest.discard()
+                            break
+                        }
+                    }
+                }
+                OverflowPolicy.FAIL -> throw QueueOverflowException("The asynchronous event queue is full ($capacity tasks)")
+            }
+        }
+
+        val task = Task(command, permitted)
+        if (policy == OverflowPolicy.DROP_OLDEST) queued.addLast(task)
+        return task
+    }
+
+    /**
+     * The number of tasks tracked for [OverflowPolicy.DROP_OLDEST].
+     */
+    internal val tracked: Int
+        get() = queued.size
+
+    /**
+     * Returns a snapshot of the queue.
+     */
+    fun stats(): QueueStats {
+        return QueueStats(capacity, capacity - permits.availablePermits(), policy, overflowed.sum())
+    }
+
+    /**
+     * A queued task. It is claimed exactly once, either by the worker that runs it or by a newer
+     * task discarding it.
+     *
+     * @param permitted Whether the task holds a permit, which it gives back when it starts.
+     */
+    private inner class Task(val command: Runnable, private val permitted: Boolean) : AtomicBoolean(), Runnable {
+        /**
+         * The scheduled hand-off of a delayed task, cancelled if the task is discarded.
+         */
+        @Volatile
+        var timer: Future<*>? = null
+
+        override fun run() {
+            if (!compareAndSet(false, true)) return
+
+            // Tasks mostly start in order, so this usually unlinks the head.
+            if (policy == OverflowPolicy.DROP_OLDEST) queued.remove(this)
+            if (permitted) permits.release()
+            command.run()
+        }
+
+        fun discard() {
+            timer?.cancel(false)
+            (command as? DiscardableTask)?.discarded()
+        }
+    }
+}
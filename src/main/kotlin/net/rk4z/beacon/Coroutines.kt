@@ -0,0 +1,191 @@
+@file:Suppress("unused")
+
+package net.rk4z.beacon
+
+import kotlinx.coroutines.CoroutineDispatcher
+import kotlinx.coroutines.CoroutineExceptionHandler
+import kotlinx.coroutines.CoroutineName
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.cancelChildren
+import kotlinx.coroutines.channels.BufferOverflow
+import kotlinx.coroutines.channels.Channel
+import kotlinx.coroutines.channels.awaitClose
+import kotlinx.coroutines.channels.trySendBlocking
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.SharedFlow
+import kotlinx.coroutines.flow.SharingStarted
+import kotlinx.coroutines.flow.buffer
+import kotlinx.coroutines.flow.callbackFlow
+import kotlinx.coroutines.flow.shareIn
+import kotlinx.coroutines.launch
+
+/**
+ * The scope suspending handlers are launched in.
+ * A failing handler is logged and does not affect the others. [EventBus.shutdown] cancels every
+ * handler still running.
+ */
+internal object EventBusCoroutines {
+    val scope = CoroutineScope(
+        SupervisorJob() + CoroutineName("EventBus") + CoroutineExceptionHandler { _, e ->
+            EventBus.logger.error("Exception while executing handler: ${e.message}", e)
+        }
+    )
+
+    fun cancelAll() {
+        scope.coroutineContext.cancelChildren()
+    }
+}
+
+/**
+ * Registers a suspending event handler for a specific event type.
+ * Each event launches a coroutine on [dispatcher] and the hook returns as soon as it is launched,
+ * so the post does not wait for the handler in any processing type.
+ *
+ * The handler runs after the dispatch has returned, so it cannot receive [PooledEvent]s, which are
+ * reset and reused by then. Subscribing to a pooled class fails, and pooled events of a subclass
+ * are skipped.
+ *
+ * @param T The type of event, or a superclass or interface shared by the events to receive.
+ * @param dispatcher The dispatcher the handler runs on.
+ * @param condition An optional condition that must be met for the handler to be executed.
+ * @param ignoresCondition Whether the condition should be ignored.
+ * @param priority The priority of the event hook, which orders the launches.
+ * @param handler The handler function for the event.
+ * @return The subscription of the registered hook.
+ * @throws IllegalArgumentException If [T] is a [PooledEvent].
+ */
+inline fun <reified T : Any> IEventHandler.suspendHandler(
+    dispatcher: CoroutineDispatcher = Dispatchers.Default,
+    noinline condition: (() -> Boolean)? = null,
+    ignoresCondition: Boolean = false,
+    priority: Priority = Priority.NORMAL,
+    noinline handler: suspend (T) -> Unit
+): Subscription {
+    return suspendHandler(T::class.java, dispatcher, condition, ignoresCondition, priority, handler)
+}
+
+/**
+ * Registers a suspending event handler for the given class.
+ *
+ * @throws IllegalArgumentException If [eventClass] is a [PooledEvent].
+ * @see suspendHandler
+ */
+fun <T : Any> IEventHandler.suspendHandler(
+    eventClass: Class<T>,
+    dispatcher: CoroutineDispatcher,
+    condition: (() -> Boolean)?,
+    ignoresCondition: Boolean,
+    priority: Priority,
+    handler: suspend (T) -> Unit
+): Subscription {
+    PooledEvents.requireNotPooled(eventClass, "Suspending handlers")
+
+    return EventBus.registerEventHook(
+        eventClass,
+        EventHook(
+            this,
+            Handler { event ->
+                if (!PooledEvents.skip(event, "a suspending handler")) {
+                    EventBusCoroutines.scope.launch(dispatcher) { handler(event) }
+                }
+            },
+            ignoresCondition,
+            priority,
+            condition
+        )
+    )
+}
+
+/**
+ * Returns a cold flow of the events of type [T].
+ *
+ * @see flowOf
+ */
+inline fun <reified T : Any> EventBus.flowOf(
+    capacity: Int = Channel.BUFFERED,
+    onBufferOverflow: BufferOverflow = BufferOverflow.SUSPEND,
+    priority: Priority = Priority.NORMAL
+): Flow<T> = flowOf(T::class.java, capacity, onBufferOverflow, priority)
+
+/**
+ * Returns a cold flow of the events of the given class, including subclasses and implementations.
+ *
+ * A hook is registered when the flow is collected and removed when the collection ends, so each
+ * collector sees the events posted while it is collecting. Posting threads hand events to the
+ * collector through a buffer of [capacity] events. While it is full, [BufferOverflow.SUSPEND]
+ * blocks the posting thread until the collector catches up, and the other policies drop events
+ * instead. Pass [Channel.CONFLATED] to only keep the latest event.
+ *
+ * Collectors see events after their dispatch has returned, so the flow cannot carry
+ * [PooledEvent]s, which are reset and reused by then. Pooled events of a subclass are skipped.
+ *
+ * @param T The type of the events.
+ * @param eventClass The class or interface of the events.
+ * @param capacity The buffer capacity, or one of the [Channel] capacity constants.
+ * @param onBufferOverflow What to do when the buffer is full.
+ * @param priority The priority of the hook feeding the flow.
+ * @return The flow.
+ * @throws IllegalArgumentException If [eventClass] is a [PooledEvent].
+ */
+fun <T : Any> EventBus.flowOf(
+    eventClass: Class<T>,
+    capacity: Int = Channel.BUFFERED,
+    onBufferOverflow: BufferOverflow = BufferOverflow.SUSPEND,
+    priority: Priority = Priority.NORMAL
+): Flow<T> {
+    PooledEvents.requireNotPooled(eventClass, "Flows")
+
+    val blocking = capacity != Channel.CONFLATED && onBufferOverflow == BufferOverflow.SUSPEND
+    return callbackFlow {
+        val owner = object : IEventHandler {}
+        val subscription = registerEventHook(
+            eventClass,
+            EventHook(owner, Handler { event ->
+                if (PooledEvents.skip(event, "a flow")) return@Handler
+                if (blocking) trySendBlocking(event) else trySend(event)
+            }, true, priority)
+        )
+        awaitClose { subscription.unsubscribe() }
+    }.buffer(capacity, onBufferOverflow)
+}
+
+/**
+ * Returns a hot flow of the events of type [T] shared between all of its collectors.
+ *
+ * @see sharedFlowOf
+ */
+inline fun <reified T : Any> EventBus.sharedFlowOf(
+    scope: CoroutineScope,
+    replay: Int = 0,
+    capacity: Int = Channel.BUFFERED,
+    onBufferOverflow: BufferOverflow = BufferOverflow.SUSPEND,
+    priority: Priority = Priority.NORMAL
+): SharedFlow<T> = sharedFlowOf(T::class.java, scope, replay, capacity, onBufferOverflow, priority)
+
+/**
+ * Returns a hot flow of the events of the given class shared between all of its collectors.
+ * A single hook is registered while at least one collector is active.
+ *
+ * @param T The type of the events.
+ * @param eventClass The class or interface of the events.
+ * @param scope The scope the sharing coroutine runs in.
+ * @param replay The number of events replayed to new collectors.
+ * @param capacity The buffer capacity between posting threads and the sharing coroutine.
+ * @param onBufferOverflow What to do when that buffer is full.
+ * @param priority The priority of the hook feeding the flow.
+ * @return The shared flow.
+ * @throws IllegalArgumentException If [eventClass] is a [PooledEvent].
+ */
+fun <T : Any> EventBus.sharedFlowOf(
+    eventClass: Class<T>,
+    scope: CoroutineScope,
+    replay: Int = 0,
+    capacity: Int = Channel.BUFFERED,
+    onBufferOverflow: BufferOverflow = BufferOverflow.SUSPEND,
+    priority: Priority = Priority.NORMAL
+): SharedFlow<T> {
+    return flowOf(eventClass, capacity, onBufferOverflow, priority)
+        .shareIn(scope, SharingStarted.WhileSubscribed(), replay)
+}
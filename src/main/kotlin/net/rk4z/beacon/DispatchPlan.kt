@@ -0,0 +1,144 @@
+package net.rk4z.beacon
+
+/**
+ * An immutable, priority-sorted snapshot of the hooks registered for one event class.
+ *
+ * Plans are compiled once whenever the hook set changes and replaced as a whole, so posting an
+ * event only walks a flat array. Per-hook checks that do not depend on the posted event are
+ * folded into [flags] at compile time; a hook with no flags is always invoked.
+ *
+ * Once a [CancelableEvent] is cancelled, only hooks flagged [RECEIVES_CANCELED] still run, and the
+ * dispatch stops after [lastCancelObserver], the last of them.
+ *
+ * @param H The type of the hooks.
+ * @property hooks The hooks in dispatch order, read through [hook].
+ * @property flags The precomputed check flags, parallel to [hooks].
+ * @property tierStarts The index of the first hook of each priority tier, followed by [size].
+ * @property parallelTimeout The overall deadline in milliseconds for running every tier in parallel,
+ * which is the sum of the largest timeout of each tier, or -1 if any hook has no timeout.
+ * @property lastCancelObserver The index of the last hook receiving cancelled events, or -1 if there is none.
+ */
+@Suppress("UNCHECKED_CAST")
+internal class DispatchPlan<out H : Hook> private constructor(
+    @JvmField val hooks: Array<Hook>,
+    @JvmField val flags: IntArray,
+    @JvmField val tierStarts: IntArray,
+    @JvmField val parallelTimeout: Long,
+    @JvmField val lastCancelObserver: Int
+) {
+    val size: Int
+        get() = hooks.size
+
+    val tierCount: Int
+        get() = tierStarts.size - 1
+
+    /**
+     * Returns the hook at the given index.
+     *
+     * @param index The index of the hook in dispatch order.
+     * @return The hook.
+     */
+    fun hook(index: Int): H = hooks[index] as H
+
+    /**
+     * Returns whether the given hook should receive the current post.
+     *
+     * @param index The index of the hook in [hooks].
+     * @param cancelable The posted event if it is cancelable, otherwise null.
+     * @return true if the hook is eligible, false otherwise.
+     */
+    fun isEligible(index: Int, cancelable: CancelableEvent? = null): Boolean {
+        val flag = flags[index]
+        if (cancelable != null && flag and RECEIVES_CANCELED == 0 && cancelable.isCanceled) return false
+        if (flag and (GUARDED or CONDITIONAL) == 0) return true
+
+        val hook = hooks[index]
+        if (flag and GUARDED != 0 && !hook.handlerClass.handleEvents()) return false
+        if (flag and CONDITIONAL != 0 && !hook.condition!!.invoke()) return false
+        return true
+    }
+
+    /**
+     * Invokes [action] for every eligible hook in dispatch order.
+     * If [cancelable] is cancelled along the way, the dispatch stops as soon as no later hook
+     * receives cancelled events.
+     *
+     * @param cancelable The posted event if it is cancelable, otherwise null.
+     * @param action The action to run for each eligible hook.
+     */
+    inline fun forEachEligible(cancelable: CancelableEvent? = null, action: (H) -> Unit) {
+        val hooks = hooks
+        for (i in hooks.indices) {
+            if (cancelable != null && i > lastCancelObserver && cancelable.isCanceled) return
+            if (isEligible(i, cancelable)) {
+                action(hooks[i] as H)
+            }
+        }
+    }
+
+    companion object {
+        /**
+         * The hook is skipped while its handler class does not handle events.
+         */
+        const val GUARDED = 1
+
+        /**
+         * The hook is skipped while its condition evaluates to false.
+         */
+        const val CONDITIONAL = 2
+
+        /**
+         * The hook still runs after the event has been cancelled.
+         */
+        const val RECEIVES_CANCELED = 4
+
+        @JvmField
+        val EMPTY = DispatchPlan<Nothing>(emptyArray(), IntArray(0), IntArray(1), -1, -1)
+
+        /**
+         * Compiles a plan from hooks that are already in dispatch order.
+         *
+         * @param hooks The hooks to compile.
+         * @return The compiled plan.
+         */
+        fun <H : Hook> compile(hooks: List<H>): DispatchPlan<H> {
+            if (hooks.isEmpty()) return EMPTY
+
+            val ordered = Array<Hook>(hooks.size) { hooks[it] }
+            val flags = IntArray(ordered.size) { i ->
+                val hook = ordered[i]
+                var flag = 0
+                if (!hook.ignoresCondition) flag = flag or GUARDED
+                if (hook.condition != null) flag = flag or CONDITIONAL
+                if (hook is EventHook<*> && hook.receivesCanceled) flag = flag or RECEIVES_CANCELED
+                flag
+            }
+            val lastCancelObserver = flags.indexOfLast { it and RECEIVES_CANCELED != 0 }
+
+            val tierStarts = ArrayList<Int>()
+            var bounded = true
+            var parallelTimeout = 0L
+            var tierTimeout = 0L
+            for (i in ordered.indices) {
+                val hook = ordered[i]
+                if (i == 0 || hook.priority.level != ordered[i - 1].priority.level) {
+                    tierStarts.add(i)
+                    parallelTimeout += tierTimeout
+                    tierTimeout = 0
+                }
+                val timeout = hook.timeout
+                if (timeout == null) bounded = false else tierTimeout = maxOf(tierTimeout, timeout)
+            }
+            tierStarts.add(ordered.size)
+            parallelTimeout += tierTimeout
+
+            return DispatchPlan(
+                ordered,
+                flags,
+                tierStarts.toIntArray(),
+                if (bounded) parallelTimeout else -1,
+                lastCancelObserver
+            )
+        }
+    }
+}
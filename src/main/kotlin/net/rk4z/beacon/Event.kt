@@ -1,4 +1,4 @@
-@file:Suppress("unused", "MemberVisibilityCanBePrivate")
+@file:Suppress("unused", "MemberVisibilityCanBePrivate", "UNCHECKED_CAST")
 
 package net.rk4z.beacon
 
@@ -6,11 +6,16 @@ package net.rk4z.beacon
  * Represents a generic event.
  */
 abstract class Event {
+    private var meta: MutableMap<String, Any?>? = null
+    private var metaSlots: Array<Any?>? = null
+
     /**
      * The metadata of the event.
      * This can be used to store additional information about the event.
+     * The map is allocated on first access.
      */
-    val metadata: MutableMap<String, Any?> = mutableMapOf()
+    val metadata: MutableMap<String, Any?>
+        get() = meta ?: LinkedHashMap<String, Any?>().also { meta = it }
 
     /**
      * Sets a metadata key-value pair.
@@ -24,7 +29,7 @@ abstract class Event {
      * @param key The key of the metadata.
      * @return The value of the metadata.
      */
-    fun getMeta(key: String): Any? = metadata[key]
+    fun getMeta(key: String): Any? = meta?.get(key)
 
     /**
      * Gets a metadata value by key or a default value if the value is null.
@@ -32,7 +37,49 @@ abstract class Event {
      * @param default The default value to return if the value is null.
      * @return The value of the metadata or the default value.
      */
-    fun <T> getMetaOrDefault(key: String, default: T): T = metadata[key] as? T ?: default
+    fun <T> getMetaOrDefault(key: String, default: T): T = meta?.get(key) as? T ?: default
+
+    /**
+     * Sets a typed metadata value.
+     * Typed metadata is stored separately from the string-keyed [metadata].
+     * @param key The key of the metadata.
+     * @param value The value of the metadata, or null to remove it.
+     */
+    fun <T> setMeta(key: MetaKey<T>, value: T?) {
+        var slots = metaSlots
+        if (slots == null || key.slot >= slots.size) {
+            if (value == null) return
+            slots = (slots ?: arrayOfNulls(0)).copyOf(maxOf(key.slot + 1, MetaKey.count))
+            metaSlots = slots
+        }
+        slots[key.slot] = value
+    }
+
+    /**
+     * Gets a typed metadata value.
+     * @param key The key of the metadata.
+     * @return The value of the metadata, or null if it is not set.
+     */
+    fun <T> getMeta(key: MetaKey<T>): T? {
+        val slots = metaSlots ?: return null
+        return if (key.slot < slots.size) slots[key.slot] as T? else null
+    }
+
+    /**
+     * Gets a typed metadata value or a default value if it is not set.
+     * @param key The key of the metadata.
+     * @param default The default value to return if the value is not set.
+     * @return The value of the metadata or the default value.
+     */
+    fun <T> getMetaOrDefault(key: MetaKey<T>, default: T): T = getMeta(key) ?: default
+
+    /**
+     * Removes all metadata, keeping the allocated storage for reuse.
+     */
+    fun clearMeta() {
+        meta?.clear()
+        metaSlots?.fill(null)
+    }
 }
 
 /**
@@ -54,12 +101,24 @@ abstract class CancelableEvent : Event() {
 
     /**
      * Uncancels the event.
+     * Subclasses that are also [PooledEvent]s should call this when overriding it.
      */
-    fun reset() {
+    open fun reset() {
         isCanceled = false
     }
 }
 
+/**
+ * Represents an event that can be recycled through an [EventPool].
+ * Implementations must restore every field to its initial state in [reset].
+ */
+interface PooledEvent {
+    /**
+     * Resets the event before it is returned to its pool.
+     */
+    fun reset()
+}
+
 /**
  * Represents an event that can return a result.
  * @param T The type of the result.
@@ -5,10 +5,18 @@ import org.reflections.scanners.Scanners
 import org.reflections.util.ConfigurationBuilder
 import org.slf4j.Logger
 import org.slf4j.LoggerFactory
-import java.util.concurrent.CopyOnWriteArrayList
+import java.nio.file.Path
+import java.util.concurrent.Callable
+import java.util.concurrent.CompletableFuture
 import java.util.concurrent.ExecutionException
-import java.util.concurrent.Executors
+import java.util.concurrent.Executor
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Flow
+import java.util.concurrent.ForkJoinPool
+import java.util.concurrent.Future
+import java.util.concurrent.RejectedExecutionException
 import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.ScheduledThreadPoolExecutor
 import java.util.concurrent.TimeUnit
 import java.util.concurrent.TimeoutException
 
@@ -19,49 +27,141 @@ object EventBus {
     var isInitialized: Boolean = false
         private set
     internal val logger: Logger = LoggerFactory.getLogger(EventBus::class.java.simpleName)
-    internal val registry: MutableMap<Class<out Event>, CopyOnWriteArrayList<EventHook<in Event>>> = mutableMapOf()
-    internal val returnableRegistry: MutableMap<Class<out ReturnableEvent<*>>, MutableMap<String, ReturnableEventHook<out ReturnableEvent<*>, *>>> = mutableMapOf()
-    internal lateinit var asyncExecutor: ScheduledExecutorService
+    internal val registry: HookRegistry<EventHook<in Event>> = HookRegistry(returnable = false)
+    internal val returnableRegistry: HookRegistry<ReturnableEventHook<*, *>> = HookRegistry(returnable = true)
+    internal lateinit var asyncExecutor: ExecutorService
+    internal lateinit var scheduler: ScheduledExecutorService
+    internal lateinit var asyncQueue: Executor
+    private var ringBufferSize: Int = 1024
+    private var waitStrategy: WaitStrategy = WaitStrategy.PARK
+
+    @Volatile
+    private var ringBuffer: RingBufferDispatcher? = null
 
     /**
      * Registers an event hook for a specific event class.
+     * The hook also receives events whose class extends or implements [eventClass].
      *
      * @param T The type of the event.
-     * @param eventClass The class of the event to register the hook for.
+     * @param eventClass The class or interface of the event to register the hook for.
      * @param eventHook The event hook to register.
+     * @return The subscription of the hook, or the existing one if the hook is already registered.
      */
     @JvmStatic
-    fun <T : Event> registerEventHook(eventClass: Class<T>, eventHook: EventHook<T>) {
-        val handlers = registry.getOrPut(eventClass) { CopyOnWriteArrayList() }
+    fun <T : Any> registerEventHook(eventClass: Class<T>, eventHook: EventHook<T>): Subscription {
+        return registry.register(eventClass, eventHook as EventHook<in Event>)
+    }
 
-        val hook = eventHook as EventHook<in Event>
+    /**
+     * Opens a registration batch on the calling thread.
+     * Hooks registered on this thread are published together when the batch is committed or closed.
+     *
+     * @return The open batch.
+     */
+    @JvmStatic
+    fun openBatch(): RegistrationBatch = RegistrationBatch(listOf(registry.joinBatch(), returnableRegistry.joinBatch()))
 
-        if (handlers.contains(hook).not()) {
-            handlers.add(eventHook as EventHook<in Event>)
-            handlers.sortBy { it.priority.level }
-            logger.info("Registered event hook for ${eventClass.simpleName} with priority ${eventHook.priority}")
-        }
-    }
+    /**
+     * Runs [block] inside a registration batch and publishes its hooks once it returns.
+     *
+     * @param R The type of the block's result.
+     * @param block The block registering hooks.
+     * @return The result of the block.
+     */
+    inline fun <R> batch(block: () -> R): R = openBatch().use { block() }
 
     /**
      * Registers a returnable event hook for a specific event class.
+     * The hook also receives events whose class extends [eventClass].
      *
      * @param T The type of the event.
      * @param R The type of the return value.
      * @param eventClass The class of the event to register the hook for.
      * @param eventHook The returnable event hook to register.
+     * @return The subscription of the hook, or the existing one if the hook is already registered.
      */
     @JvmStatic
-    fun <T : ReturnableEvent<R>, R> registerReturnableEventHook(eventClass: Class<T>, eventHook: ReturnableEventHook<T, R>) {
-        val handlers = returnableRegistry.getOrPut(eventClass) { mutableMapOf() }
+    fun <T : ReturnableEvent<R>, R> registerReturnableEventHook(eventClass: Class<T>, eventHook: ReturnableEventHook<T, R>): Subscription {
+        return returnableRegistry.register(eventClass, eventHook)
+    }
 
-        val handlerKey = eventHook.handlerClass::class.simpleName + eventHook.priority.level
+    /**
+     * Registers every [Subscribe] method of the given event handler.
+     * The methods of a class are discovered once and bound without reflection on later calls.
+     *
+     * @param handler The event handler whose annotated methods should be registered.
+     * @return The subscriptions of the registered hooks.
+     */
+    @JvmStatic
+    fun subscribe(handler: IEventHandler): List<Subscription> = bindSubscribers(handler)()
+
+    /**
+     * Binds every [Subscribe] method of [handler] without registering anything, so a method that
+     * cannot be bound leaves no hooks of the handler behind.
+     *
+     * @return Registers the bound hooks in one batch and returns their subscriptions.
+     */
+    private fun bindSubscribers(handler: IEventHandler): () -> List<Subscription> {
+        val registrations = SubscriberMethods.of(handler.javaClass).map { it.prepare(handler) }
+        return { if (registrations.isEmpty()) emptyList() else batch { registrations.map { it() } } }
+    }
 
-        if (handlers.containsKey(handlerKey).not()) {
-            handlers[handlerKey] = eventHook as ReturnableEventHook<out ReturnableEvent<*>, *>
-            handlers.values.sortedBy { it.priority.level }
-            logger.info("Registered returnable event hook for ${eventClass.simpleName} with priority ${eventHook.priority}")
+    /**
+     * Removes every hook owned by the given event handler.
+     * Each affected event class is rebuilt once.
+     *
+     * @param handler The event handler whose hooks should be removed.
+     * @return The number of removed hooks.
+     */
+    @JvmStatic
+    fun unregisterHandler(handler: IEventHandler): Int {
+        val removed = registry.removeOwner(handler) + returnableRegistry.removeOwner(handler)
+        if (removed > 0) {
+            logger.info("Unregistered $removed event hooks of ${handler.javaClass.simpleName}")
+        }
+        return removed
+    }
+
+    /**
+     * Removes every hook owned by an instance of the given handler class.
+     * This also removes the hooks of handlers the bus constructed itself, including handlers
+     * deferred by `lazyInit` that were never constructed, so they can be removed when the code
+     * that defines them is unloaded.
+     *
+     * @param type The exact class of the handlers to remove.
+     * @return The number of removed hooks.
+     */
+    @JvmStatic
+    fun unregisterHandlers(type: Class<out IEventHandler>): Int {
+        val owned: (IEventHandler) -> Boolean = { it.javaClass == type || (it is LazyHandler && it.type == type) }
+        val removed = registry.removeOwners(owned) + returnableRegistry.removeOwners(owned)
+        if (removed > 0) {
+            logger.info("Unregistered $removed event hooks of ${type.simpleName}")
         }
+        return removed
+    }
+
+    /**
+     * Creates a [Flow.Publisher] of the events of the given class, including subclasses and
+     * implementations. Events are delivered to subscribers on the asynchronous executor as they
+     * request them. [PooledEvent]s are not published, since they are reused once their dispatch returns.
+     *
+     * @param T The type of the events.
+     * @param eventClass The class or interface of the events to publish.
+     * @param bufferCapacity The maximum number of events buffered per subscriber before further
+     * events are dropped for it.
+     * @param priority The priority of the hook feeding the publisher.
+     * @return The publisher, which stays subscribed to the bus until it is closed.
+     * @throws IllegalArgumentException If [eventClass] is a [PooledEvent].
+     */
+    @JvmStatic
+    @JvmOverloads
+    fun <T : Any> publisher(
+        eventClass: Class<T>,
+        bufferCapacity: Int = Flow.defaultBufferSize(),
+        priority: Priority = Priority.NORMAL
+    ): EventPublisher<T> {
+        return EventPublisher(eventClass, asyncExecutor, bufferCapacity, priority)
     }
 
     /**
@@ -69,69 +169,159 @@ object EventBus {
      *
      * @param T The type of the event.
      * @param event The event to process.
-     * @param processingType The type of processing (Sync, Async, HandlerAsync).
-     * @param isDebug Whether to enable debug logging.
+     * @param processingType The type of processing (Sync, Async, AsyncOrdered, HandlerAsync, HandlerParallel, RingBuffer).
      * @return The processed event.
      */
     @JvmStatic
     fun <T : Event> processEvent(event: T, processingType: EventProcessingType): T {
-        if (isDebug == true) {
-            logger.info("Calling event: ${event::class.simpleName}")
-        } else {
-            logger.debug("Calling event: ${event::class.simpleName}")
-        }
+        val type = EventType.of(event.javaClass)
+        trace { "Calling event: ${type.name}" }
 
-        val target = registry[event::class.java] ?: return event
+        val target = registry.planFor(type)
+        if (target.size == 0) return event
 
-        if (event is CancelableEvent && event.isCanceled) {
-            logger.debug("Event ${event::class.simpleName} is cancelled")
+        val cancelable = if (type.isCancelable) event as CancelableEvent else null
+        if (cancelable != null && cancelable.isCanceled && target.lastCancelObserver < 0) {
+            trace { "Event ${type.name} is cancelled" }
             return event
         }
 
-        for (eventHook in target) {
-            if (!eventHook.ignoresCondition && !eventHook.handlerClass.handleEvents()) {
-                continue
+        when (processingType) {
+            EventProcessingType.HANDLER_ASYNC -> target.forEachEligible(cancelable) { eventHook ->
+                val future = asyncExecutor.submit { eventHook.handler.handle(event) }
+                if (eventHook.timeout != null) {
+                    future.get(eventHook.timeout, TimeUnit.MILLISECONDS)
+                } else {
+                    future.get()
+                }
+                logHandled(type, eventHook)
+            }
+            EventProcessingType.ASYNC -> target.forEachEligible(cancelable) { eventHook ->
+                asyncQueue.execute {
+                    invokeHook(eventHook, event)
+                }
+                logHandled(type, eventHook)
+            }
+            EventProcessingType.FULL_SYNC -> dispatchSync(event, type, target)
+            EventProcessingType.HANDLER_PARALLEL -> dispatchParallel(event, type, target)
+            EventProcessingType.ASYNC_ORDERED -> asyncQueue.execute { dispatchSync(event, type, target) }
+            EventProcessingType.RING_BUFFER -> ringBuffer().publish(event, type, target)
+        }
+
+        return event
+    }
+
+    /**
+     * Returns the ring buffer dispatcher, starting it on first use so its consumer thread only
+     * exists while [EventProcessingType.RING_BUFFER] is actually used.
+     */
+    private fun ringBuffer(): RingBufferDispatcher {
+        ringBuffer?.let { return it }
+        synchronized(this) {
+            return ringBuffer ?: RingBufferDispatcher(ringBufferSize, waitStrategy) { event, type, target ->
+                dispatchSync(event, type, target)
+            }.also { ringBuffer = it }
+        }
+    }
+
+    /**
+     * Runs the eligible hooks in dispatch order like [dispatchSync], but returns the first exception
+     * thrown by a hook, with later ones added as suppressed, instead of logging them.
+     */
+    private fun dispatchCollecting(event: Event, type: EventType<*>, target: DispatchPlan<EventHook<in Event>>): Throwable? {
+        var failure: Throwable? = null
+        target.forEachEligible(event as? CancelableEvent) { eventHook ->
+            try {
+                eventHook.handler.handle(event)
+            } catch (e: Throwable) {
+                val first = failure
+                if (first == null) failure = e else first.addSuppressed(e)
             }
+            logHandled(type, eventHook)
+        }
+        return failure
+    }
 
-            if (eventHook.condition?.invoke() == false) {
-                continue
+    private fun dispatchSync(event: Event, type: EventType<*>, target: DispatchPlan<EventHook<in Event>>) {
+        target.forEachEligible(if (type.isCancelable) event as CancelableEvent else null) { eventHook ->
+            invokeHook(eventHook, event)
+            logHandled(type, eventHook)
+        }
+    }
+
+    /**
+     * Runs the eligible hooks of each priority tier concurrently and waits for them before starting
+     * the next tier. All tiers share one deadline, [DispatchPlan.parallelTimeout], counted from the
+     * start of the dispatch. Hooks still running when it expires are cancelled and later tiers are skipped.
+     * A cancellation is seen between tiers, since the hooks of a tier run concurrently.
+     */
+    private fun dispatchParallel(event: Event, type: EventType<*>, target: DispatchPlan<EventHook<in Event>>) {
+        val deadline = if (target.parallelTimeout >= 0) {
+            System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(target.parallelTimeout)
+        } else {
+            Long.MAX_VALUE
+        }
+        val futures = ArrayList<Future<*>>()
+        val cancelable = if (type.isCancelable) event as CancelableEvent else null
+
+        for (tier in 0 until target.tierCount) {
+            if (cancelable != null && target.tierStarts[tier] > target.lastCancelObserver && cancelable.isCanceled) return
+
+            for (i in target.tierStarts[tier] until target.tierStarts[tier + 1]) {
+                if (target.isEligible(i, cancelable)) {
+                    val eventHook = target.hook(i)
+                    futures.add(asyncExecutor.submit { eventHook.handler.handle(event) })
+                }
             }
 
-            when (processingType) {
-                EventProcessingType.HANDLER_ASYNC -> {
-                    val future = asyncExecutor.submit { eventHook.handler.handle(event) }
-                    if (eventHook.timeout != null) {
-                        future.get(eventHook.timeout, TimeUnit.MILLISECONDS)
-                    } else {
+            for (future in futures) {
+                try {
+                    if (deadline == Long.MAX_VALUE) {
                         future.get()
+                    } else {
+                        future.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)
                     }
-                }
-                EventProcessingType.ASYNC -> {
-                    asyncExecutor.execute {
-                        runCatching {
-                            eventHook.handler.handle(event)
-                        }.onFailure {
-                            logger.error("Exception while executing handler: ${it.message}", it)
-                        }
-                    }
-                }
-                EventProcessingType.FULL_SYNC -> {
-                    runCatching {
-                        eventHook.handler.handle(event)
-                    }.onFailure {
-                        logger.error("Exception while executing handler: ${it.message}", it)
-                    }
+                } catch (e: ExecutionException) {
+                    logger.error("Exception while executing handler: ${e.cause?.message}", e.cause)
+                } catch (e: TimeoutException) {
+                    futures.forEach { it.cancel(true) }
+                    logger.error("Timeout occurred while executing handlers for event: ${type.name}")
+                    return
+                } catch (e: InterruptedException) {
+                    futures.forEach { it.cancel(true) }
+                    logger.error("Thread was interrupted while processing event: ${type.name}", e)
+                    Thread.currentThread().interrupt()
+                    return
                 }
             }
 
-            if (isDebug == true) {
-                logger.info("Handled event: ${event::class.simpleName} with ${eventHook.handlerClass::class.simpleName}")
-            } else {
-                logger.debug("Handled event: ${event::class.simpleName} with ${eventHook.handlerClass::class.simpleName}")
-            }
+            trace { "Handled tier ${tier + 1} of ${target.tierCount} of event: ${type.name}" }
+            futures.clear()
         }
+    }
 
-        return event
+    private fun invokeHook(eventHook: EventHook<in Event>, event: Event) {
+        try {
+            eventHook.handler.handle(event)
+        } catch (e: Throwable) {
+            logger.error("Exception while executing handler: ${e.message}", e)
+        }
+    }
+
+    private fun logHandled(type: EventType<*>, eventHook: EventHook<in Event>) {
+        trace { "Handled event: ${type.name} with ${eventHook.handlerClass.javaClass.simpleName}" }
+    }
+
+    /**
+     * Logs a dispatch trace message at info level in debug mode, otherwise at debug level.
+     * The message is only built when it will actually be logged.
+     */
+    private inline fun trace(message: () -> String) {
+        if (isDebug) {
+            logger.info(message())
+        } else if (logger.isDebugEnabled) {
+            logger.debug(message())
+        }
     }
 
     /**
@@ -170,6 +360,25 @@ object EventBus {
         return processEvent(event, EventProcessingType.FULL_SYNC)
     }
 
+    /**
+     * Takes an event from [pool], lets [init] fill it in, posts it with [EventProcessingType.FULL_SYNC]
+     * and returns it to the pool once every hook has run.
+     *
+     * @param T The type of the event.
+     * @param pool The pool to take the event from.
+     * @param init Fills in the event before it is posted.
+     */
+    @JvmStatic
+    inline fun <T> postFullSyncPooled(pool: EventPool<T>, init: (T) -> Unit) where T : Event, T : PooledEvent {
+        val event = pool.acquire()
+        try {
+            init(event)
+            processEvent(event, EventProcessingType.FULL_SYNC)
+        } finally {
+            pool.release(event)
+        }
+    }
+
     /**
      * Posts an event to be handled after a specified delay by all registered hooks for the event's class.
      *
@@ -179,15 +388,27 @@ object EventBus {
      * @param timeUnit The time unit of the delay.
      * @param processingType The type of processing (Sync, Async, HandlerAsync).
      * @return The event after processing.
+     * @throws QueueOverflowException If a delayed post finds the bounded queue full under [OverflowPolicy.FAIL].
      */
     @JvmStatic
     fun <T : Event> postDelayed(event: T, delay: Long, timeUnit: TimeUnit, processingType: EventProcessingType): T {
-        asyncExecutor.schedule({
-            processEvent(event, processingType)
-        }, delay, timeUnit)
+        schedule(delay, timeUnit) { processEvent(event, processingType) }
         return event
     }
 
+    /**
+     * Runs [task] on the asynchronous queue after [delay].
+     * A bounded queue admits the task right away, so its overflow policy applies to the posting thread.
+     */
+    private fun schedule(delay: Long, timeUnit: TimeUnit, task: Runnable) {
+        val queue = asyncQueue
+        if (queue is BoundedExecutor) {
+            queue.schedule(task, delay, timeUnit)
+        } else {
+            scheduler.schedule({ queue.execute(task) }, delay, timeUnit)
+        }
+    }
+
     /**
      * Posts an event to be handled within a specified timeout by all registered hooks for the event's class.
      *
@@ -200,6 +421,7 @@ object EventBus {
      */
     @JvmStatic
     fun <T : Event> postWithTimeout(event: T, timeout: Long, timeUnit: TimeUnit, processingType: EventProcessingType): T {
+        val type = EventType.of(event.javaClass)
         val future = asyncExecutor.submit<T> {
             processEvent(event, processingType)
             event
@@ -208,15 +430,15 @@ object EventBus {
         try {
             future.get(timeout, timeUnit)
         } catch (e: TimeoutException) {
-            logger.error("Timeout occurred while executing handler for event: ${event::class.simpleName}")
+            logger.error("Timeout occurred while executing handler for event: ${type.name}")
             if (event is CancelableEvent) {
                 event.cancel()
             }
         } catch (e: InterruptedException) {
-            logger.error("Thread was interrupted while processing event: ${event::class.simpleName}", e)
+            logger.error("Thread was interrupted while processing event: ${type.name}", e)
             Thread.currentThread().interrupt()
         } catch (e: ExecutionException) {
-            logger.error("Execution exception occurred while processing event: ${event::class.simpleName}", e)
+            logger.error("Execution exception occurred while processing event: ${type.name}", e)
         }
 
         return event
@@ -231,14 +453,15 @@ object EventBus {
      * @param delay Optional delay before executing the callback.
      * @param processingType The type of processing (Sync, Async, HandlerAsync).
      * @return The event after processing.
+     * @throws QueueOverflowException If a delayed post finds the bounded queue full under [OverflowPolicy.FAIL].
      */
     @JvmStatic
     fun <T : Event> postWithCallback(event: T, callback: (T) -> Unit, delay: Long?, processingType: EventProcessingType): T {
         if (delay != null) {
-            asyncExecutor.schedule({
+            schedule(delay, TimeUnit.MILLISECONDS) {
                 val processedEvent = processEvent(event, processingType)
                 callback(processedEvent)
-            }, delay, TimeUnit.MILLISECONDS)
+            }
         } else {
             val processedEvent = processEvent(event, processingType)
             callback(processedEvent)
@@ -247,6 +470,38 @@ object EventBus {
         return event
     }
 
+    /**
+     * Posts an event to be handled on the executor and returns a future completed once every hook has run.
+     * The hooks run on one worker in priority order, as with [EventProcessingType.ASYNC_ORDERED].
+     *
+     * @param T The type of the event.
+     * @param event The event to post.
+     * @return A future completed with the event, or completed exceptionally with the first exception
+     * thrown by a hook (later ones are added as suppressed) or a [QueueOverflowException] if the
+     * event was rejected or discarded by the queue.
+     */
+    @JvmStatic
+    fun <T : Event> postAsyncFuture(event: T): CompletableFuture<T> {
+        val type = EventType.of(event.javaClass)
+        trace { "Calling event: ${type.name}" }
+
+        val target = registry.planFor(type)
+        if (target.size == 0) return CompletableFuture.completedFuture(event)
+
+        val cancelable = if (type.isCancelable) event as CancelableEvent else null
+        if (cancelable != null && cancelable.isCanceled && target.lastCancelObserver < 0) {
+            trace { "Event ${type.name} is cancelled" }
+            return CompletableFuture.completedFuture(event)
+        }
+
+        val future = CompletableFuture<T>()
+        submitForFuture(future) {
+            val failure = dispatchCollecting(event, type, target)
+            if (failure == null) future.complete(event) else future.completeExceptionally(failure)
+        }
+        return future
+    }
+
     /**
      * Posts an event to be handled synchronously by all registered hooks for the event's class and returns the result.
      *
@@ -261,22 +516,18 @@ object EventBus {
         event: T,
         processingType: EventProcessingType
     ): R? {
-        if (isDebug == true) {
-            logger.info("Calling returnable event: ${event::class.simpleName}")
-        } else {
-            logger.debug("Calling returnable event: ${event::class.simpleName}")
-        }
+        val type = EventType.of(event.javaClass)
+        trace { "Calling returnable event: ${type.name}" }
 
-        val handlersMap = returnableRegistry[event::class.java] ?: return null
-        val target = handlersMap.values
+        val target = returnableRegistry.planFor(type)
+        if (target.size == 0) return null
 
-        for (eventHook in target) {
-            if (!eventHook.ignoresCondition && !eventHook.handlerClass.handleEvents()) continue
-            if (eventHook.condition?.invoke() == false) continue
+        target.forEachEligible { hook ->
+            val eventHook = hook as ReturnableEventHook<T, R>
 
             when (processingType) {
                 EventProcessingType.HANDLER_ASYNC -> {
-                    val future = asyncExecutor.submit<R> { (eventHook as ReturnableEventHook<T, R>).handler.handle(event) }
+                    val future = asyncExecutor.submit<R> { eventHook.handler.handle(event) }
                     runCatching {
                         val result = if (eventHook.timeout != null) {
                             future.get(eventHook.timeout, TimeUnit.MILLISECONDS)
@@ -286,9 +537,9 @@ object EventBus {
                         event.setResult(result)
                     }.onFailure { exception ->
                         when (exception) {
-                            is TimeoutException -> logger.error("Timeout occurred while processing event: ${event::class.simpleName}")
+                            is TimeoutException -> logger.error("Timeout occurred while processing event: ${type.name}")
                             is InterruptedException -> {
-                                logger.error("Thread was interrupted during event processing: ${event::class.simpleName}", exception)
+                                logger.error("Thread was interrupted during event processing: ${type.name}", exception)
                                 Thread.currentThread().interrupt()
                             }
                             is ExecutionException -> logger.error("Execution error during event processing: ${exception.message}", exception)
@@ -296,36 +547,154 @@ object EventBus {
                         }
                     }
                 }
-                EventProcessingType.ASYNC -> {
-                    throw UnsupportedParameterException("Async cannot be used in returnable events due to instability. For lightweight processing, use HandlerASync.")
+                EventProcessingType.ASYNC,
+                EventProcessingType.HANDLER_PARALLEL,
+                EventProcessingType.ASYNC_ORDERED,
+                EventProcessingType.RING_BUFFER -> {
+                    throw UnsupportedParameterException("$processingType cannot be used in returnable events due to instability. For lightweight processing, use HandlerASync.")
                 }
                 EventProcessingType.FULL_SYNC -> {
-                    runCatching {
-                        val result = (eventHook as ReturnableEventHook<T, R>).handler.handle(event)
+                    try {
+                        val result = eventHook.handler.handle(event)
                         event.setResult(result)
-                    }.onFailure {
-                        logger.error("Exception while executing handler: ${it.message}", it)
+                    } catch (e: Throwable) {
+                        logger.error("Exception while executing handler: ${e.message}", e)
                     }
                 }
             }
 
-            if (isDebug == true) {
-                logger.info("Handled returnable event: ${event::class.simpleName} with ${eventHook.handlerClass::class.simpleName}")
-            } else {
-                logger.debug("Handled returnable event: ${event::class.simpleName} with ${eventHook.handlerClass::class.simpleName}")
-            }
+            trace { "Handled returnable event: ${type.name} with ${eventHook.handlerClass.javaClass.simpleName}" }
         }
 
         return event.result
     }
 
     /**
-     * Initializes the EventBus, setting up the asynchronous executor service.
-     * Also registers a shutdown hook to cleanly shut down the executor service on application exit.
+     * Posts a returnable event and combines the results of its hooks with the given strategy.
+     *
+     * @param T The type of the event.
+     * @param R The type of the hook results.
+     * @param A The type of the aggregated result.
+     * @param event The event to post.
+     * @param strategy How to run the hooks and combine their results.
+     * @return The aggregated result.
+     */
+    @JvmStatic
+    fun <T : ReturnableEvent<R>, R, A> postReturnable(event: T, strategy: ResultStrategy<R, A>): A {
+        val type = EventType.of(event.javaClass)
+        trace { "Calling returnable event: ${type.name}" }
+
+        val hooks = ArrayList<ReturnableEventHook<ReturnableEvent<R>, R>>()
+        returnableRegistry.planFor(type).forEachEligible { hooks.add(it as ReturnableEventHook<ReturnableEvent<R>, R>) }
+
+        return strategy.aggregate(event, type, hooks, asyncExecutor)
+    }
+
+    /**
+     * Posts a returnable event to be handled on the executor and returns a future of its result.
+     * The hooks run on one worker in priority order, as with [EventProcessingType.FULL_SYNC].
+     *
+     * @param T The type of the event.
+     * @param R The type of the return value.
+     * @param event The event to post.
+     * @return A future completed with the result of the event, or completed exceptionally with the
+     * first exception thrown by a hook (later ones are added as suppressed) or a
+     * [QueueOverflowException] if the event was rejected or discarded by the queue.
+     */
+    @JvmStatic
+    fun <T : ReturnableEvent<R>, R> postReturnableFuture(event: T): CompletableFuture<R?> {
+        val type = EventType.of(event.javaClass)
+        trace { "Calling returnable event: ${type.name}" }
+
+        val target = returnableRegistry.planFor(type)
+        if (target.size == 0) return CompletableFuture.completedFuture(null)
+
+        val future = CompletableFuture<R?>()
+        submitForFuture(future) {
+            var failure: Throwable? = null
+            target.forEachEligible { hook ->
+                val eventHook = hook as ReturnableEventHook<T, R>
+
+                try {
+                    event.setResult(eventHook.handler.handle(event))
+                } catch (e: Throwable) {
+                    val first = failure
+                    if (first == null) failure = e else first.addSuppressed(e)
+                }
+                trace { "Handled returnable event: ${type.name} with ${eventHook.handlerClass.javaClass.simpleName}" }
+            }
+            val error = failure
+            if (error == null) future.complete(event.result) else future.completeExceptionally(error)
+        }
+        return future
+    }
+
+    /**
+     * Runs [task] on the asynchronous queue, completing [future] exceptionally if the queue rejects
+     * or discards it, or if [task] itself throws, e.g. from a hook condition.
+     */
+    private fun submitForFuture(future: CompletableFuture<*>, task: () -> Unit) {
+        try {
+            asyncQueue.execute(object : DiscardableTask {
+                override fun run() {
+                    try {
+                        task()
+                    } catch (e: Throwable) {
+                        future.completeExceptionally(e)
+                    }
+                }
+
+                override fun discarded() {
+                    future.completeExceptionally(QueueOverflowException("The event was discarded by the asynchronous queue"))
+                }
+            })
+        } catch (e: QueueOverflowException) {
+            future.completeExceptionally(e)
+        } catch (e: RejectedExecutionException) {
+            future.completeExceptionally(e)
+        }
+    }
+
+    /**
+     * Initializes the EventBus, setting up the asynchronous executor service and the scheduler of
+     * delayed posts. Also registers a shutdown hook to cleanly shut both down on application exit.
+     *
+     * @param packageNames The packages to discover event handlers in.
+     * @param threadPoolSize The number of threads of the asynchronous executor.
+     * @param isDebug Whether to log dispatch traces at info level.
+     * @param scanCache A file to persist classpath scan results in, or null to always scan.
+     * The cache is reused on later boots while the classpath is unchanged.
+     * @param parallelInit Whether to scan packages and construct handlers in parallel on a ForkJoinPool.
+     * Hooks are still registered in the same order as a serial run: packages in the given order,
+     * and handler classes sorted by name within a package.
+     * @param lazyInit Whether to defer constructing handlers until one of their events is posted.
+     * This applies to handlers whose hooks are all non-returnable [Subscribe] methods and which do not
+     * override [IEventHandler.initHandlers]; other handlers are still constructed at startup.
+     * @param executorProvider Creates the asynchronous executor, or null to use the provider
+     * registered as a service, falling back to [ExecutorProvider.fixed].
+     * @param ringBufferSize The number of slots of the [EventProcessingType.RING_BUFFER] dispatcher,
+     * rounded up to a power of two.
+     * @param waitStrategy How the ring buffer consumer waits for events.
+     * @param queueCapacity The maximum number of asynchronous tasks waiting to start, or -1 for no limit.
+     * The limit applies to [EventProcessingType.ASYNC] and [EventProcessingType.ASYNC_ORDERED] posts
+     * and to delayed posts, which take their place in the queue as soon as they are posted.
+     * @param overflowPolicy What to do with an asynchronous task once [queueCapacity] tasks are waiting.
      */
     @JvmStatic
     @JvmOverloads
-    fun initialize(vararg packageNames: String, threadPoolSize: Int = Runtime.getRuntime().availableProcessors(), isDebug: Boolean = false) {
+    fun initialize(
+        vararg packageNames: String,
+        threadPoolSize: Int = Runtime.getRuntime().availableProcessors(),
+        isDebug: Boolean = false,
+        scanCache: Path? = null,
+        parallelInit: Boolean = false,
+        lazyInit: Boolean = false,
+        executorProvider: ExecutorProvider? = null,
+        ringBufferSize: Int = 1024,
+        waitStrategy: WaitStrategy = WaitStrategy.PARK,
+        queueCapacity: Int = -1,
+        overflowPolicy: OverflowPolicy = OverflowPolicy.BLOCK
+    ) {
         if (isInitialized) {
             throw IllegalStateException("EventBus is already initialized")
         }
@@ -333,57 +702,146 @@ object EventBus {
         if (::asyncExecutor.isInitialized && !asyncExecutor.isShutdown) {
             shutdown()
         }
-        asyncExecutor = Executors.newScheduledThreadPool(threadPoolSize)
+        val classLoader = Thread.currentThread().contextClassLoader ?: EventBus::class.java.classLoader
+        val executor = (executorProvider ?: ExecutorProvider.load(classLoader)).create(threadPoolSize)
+        asyncExecutor = if (queueCapacity < 0) executor else WorkerExecutor(executor)
+        val scheduler = ScheduledThreadPoolExecutor(1) { task ->
+            Thread(task, "EventBus-scheduler").apply { isDaemon = true }
+        }
+        // Delayed tasks discarded by the queue cancel their timer, which should not linger until due.
+        scheduler.removeOnCancelPolicy = true
+        this.scheduler = scheduler
+        asyncQueue = if (queueCapacity < 0) asyncExecutor else BoundedExecutor(asyncExecutor, scheduler, queueCapacity, overflowPolicy)
         Runtime.getRuntime().addShutdownHook(Thread {
             shutdown()
         })
 
         this.isDebug = isDebug
+        this.ringBufferSize = ringBufferSize
+        this.waitStrategy = waitStrategy
+
+        val cache = scanCache?.let { ScanCache(it, classLoader) }
+
+        if (parallelInit) {
+            val pool = ForkJoinPool(threadPoolSize)
+            try {
+                val handlerClasses = packageNames
+                    .map { packageName -> pool.submit(Callable { findHandlerClasses(packageName, classLoader, cache) }) }
+                    .flatMap { it.get().orEmpty().sortedBy { subType -> subType.name } }
+                    .distinct()
+
+                val registrations = handlerClasses.map { subType ->
+                    pool.submit(Callable {
+                        Thread.currentThread().contextClassLoader = classLoader
+                        var returnables = emptyList<Subscription>()
+                        val hooks = registry.collect {
+                            returnables = returnableRegistry.collect { initializeEventHandler(subType, lazyInit) }
+                        }
+                        hooks to returnables
+                    })
+                }
+                val collected = registrations.map { it.get() }
+                registry.publish(collected.flatMap { it.first })
+                returnableRegistry.publish(collected.flatMap { it.second })
+            } finally {
+                pool.shutdown()
+            }
+        } else {
+            val handlerClasses = packageNames
+                .flatMap { findHandlerClasses(it, classLoader, cache).orEmpty().sortedBy { subType -> subType.name } }
+                .distinct()
 
-        for (packageName in packageNames) {
-            initializeEventHandlers(packageName)
+            batch {
+                handlerClasses.forEach { initializeEventHandler(it, lazyInit) }
+            }
         }
+        cache?.save()
 
         logger.info("EventBus initialized")
         isInitialized = true
     }
 
-
-    private fun initializeEventHandlers(packageName: String) {
+    private fun initializeEventHandler(subType: Class<out IEventHandler>, lazyInit: Boolean) {
         try {
+            if (lazyInit) {
+                val methods = SubscriberMethods.of(subType)
+                if (LazyHandler.supports(subType, methods)) {
+                    LazyHandler(subType, methods).install()
+                    return
+                }
+            }
+
+            val handler = subType.getDeclaredConstructor().newInstance()
+            val register = bindSubscribers(handler)
+            handler.initHandlers()
+            register()
+        } catch (e: Exception) {
+            logger.error("Failed to initialize event handler: ${subType.name}", e)
+        }
+    }
+
+    private fun findHandlerClasses(packageName: String, classLoader: ClassLoader, cache: ScanCache?): Collection<Class<out IEventHandler>>? {
+        val indexed = HandlerIndex.handlersIn(packageName, classLoader)
+        if (indexed != null) {
+            trace { "Loaded ${indexed.size} event handlers for $packageName from the handler index" }
+            return indexed
+        }
+
+        val cached = cache?.get(packageName)?.let { HandlerIndex.loadClasses(it, classLoader) }
+        if (cached != null) {
+            trace { "Loaded ${cached.size} event handlers for $packageName from the scan cache" }
+            return cached
+        }
+
+        return try {
             val reflections = Reflections(
                 ConfigurationBuilder()
-                    .forPackage(packageName)
+                    .forPackage(packageName, classLoader)
+                    .addClassLoaders(classLoader)
                     .addScanners(Scanners.SubTypes)
             )
 
-            val subTypes = reflections.getSubTypesOf(IEventHandler::class.java)
-
-            for (subType in subTypes) {
-                try {
-                    subType.getDeclaredConstructor().newInstance().initHandlers()
-                } catch (e: Exception) {
-                    logger.error("Failed to initialize event handler: ${subType.name}", e)
-                }
+            reflections.getSubTypesOf(IEventHandler::class.java).also { subTypes ->
+                cache?.put(packageName, subTypes.map { it.name }.sorted())
             }
-
         } catch (e: Exception) {
             logger.error("Failed to scan package: $packageName", e)
+            null
         }
     }
 
     /**
-     * Shuts down the EventBus, terminating the executor service and clearing the event hook registry.
-     * Waits for a specified time for all tasks to complete before forcing shutdown.
+     * Returns a snapshot of the asynchronous queue, including how many tasks hit its overflow policy.
+     *
+     * @return The snapshot, or null if the queue is unbounded.
+     */
+    @JvmStatic
+    fun queueStats(): QueueStats? = (asyncQueue as? BoundedExecutor)?.stats()
+
+    /**
+     * Shuts down the EventBus, terminating the scheduler and the executor service and clearing the
+     * event hook registry. Pending delayed posts are dropped and running suspending handlers are
+     * cancelled. Waits for a specified time for all running tasks to complete before forcing shutdown.
      */
     @JvmStatic
     fun shutdown() {
+        scheduler.shutdownNow()
+        synchronized(this) {
+            ringBuffer?.let {
+                if (!it.shutdown(10, TimeUnit.SECONDS)) {
+                    logger.warn("Ring buffer dispatcher did not drain before shutdown")
+                }
+            }
+            ringBuffer = null
+        }
         asyncExecutor.shutdown()
         if (!asyncExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
             logger.warn("Forcing shutdown of EventBus executor")
             asyncExecutor.shutdownNow()
         }
+        EventBusCoroutines.cancelAll()
         registry.clear()
+        returnableRegistry.clear()
         logger.info("EventBus shutdown")
     }
 }
@@ -2,25 +2,44 @@
 
 package net.rk4z.beacon
 
+/**
+ * The dispatch settings shared by [EventHook] and [ReturnableEventHook].
+ *
+ * @property handlerClass The class of the event handler.
+ * @property ignoresCondition Whether the condition should be ignored.
+ * @property priority The priority of the hook.
+ * @property condition An optional condition that must be met for the handler to be executed.
+ * @property timeout An optional timeout for the hook.
+ */
+sealed interface Hook {
+    val handlerClass: IEventHandler
+    val ignoresCondition: Boolean
+    val priority: Priority
+    val condition: (() -> Boolean)?
+    val timeout: Long?
+}
+
 /**
  * Represents a hook for an event.
  *
- * @param T The type of event.
+ * @param T The type of event, or a superclass or interface shared by the events to receive.
  * @property handlerClass The class of the event handler.
  * @property handler The handler function for the event.
  * @property ignoresCondition Whether the condition should be ignored.
  * @property priority The priority of the event hook.
  * @property condition An optional condition that must be met for the handler to be executed.
  * @property timeout An optional timeout for the event hook.
+ * @property receivesCanceled Whether the hook still runs after a [CancelableEvent] has been cancelled.
  */
-class EventHook<T : Event>(
-    val handlerClass: IEventHandler,
+class EventHook<T : Any>(
+    override val handlerClass: IEventHandler,
     val handler: Handler<T>,
-    val ignoresCondition: Boolean,
-    val priority: Priority = Priority.NORMAL,
-    val condition: (() -> Boolean)? = null,
-    val timeout: Long? = null
-)
+    override val ignoresCondition: Boolean,
+    override val priority: Priority = Priority.NORMAL,
+    override val condition: (() -> Boolean)? = null,
+    override val timeout: Long? = null,
+    val receivesCanceled: Boolean = false
+) : Hook
 
 /**
  * Represents a hook for a returnable event.
@@ -35,33 +54,37 @@ class EventHook<T : Event>(
  * @property timeout An optional timeout for the event hook.
  */
 class ReturnableEventHook<T : ReturnableEvent<R>, R>(
-    val handlerClass: IEventHandler,
+    override val handlerClass: IEventHandler,
     val handler: ReturnableHandler<T, R>,
-    val ignoresCondition: Boolean,
-    val priority: Priority = Priority.NORMAL,
-    val condition: (() -> Boolean)? = null,
-    val timeout: Long? = null
-)
+    override val ignoresCondition: Boolean,
+    override val priority: Priority = Priority.NORMAL,
+    override val condition: (() -> Boolean)? = null,
+    override val timeout: Long? = null
+) : Hook
 
 /**
  * Registers an event handler for a specific event type.
+ * The handler also receives subclasses of [T] and events implementing it.
  *
- * @param T The type of event.
+ * @param T The type of event, or a superclass or interface shared by the events to receive.
  * @param condition An optional condition that must be met for the handler to be executed.
  * @param ignoresCondition Whether the condition should be ignored.
  * @param priority The priority of the event hook.
  * @param timeout An optional timeout for the event hook.
+ * @param receivesCanceled Whether the handler still runs after the event has been cancelled.
  * @param handler The handler function for the event.
+ * @return The subscription of the registered hook.
  * @throws IllegalStateException If the class does not implement IEventHandler.
  */
-inline fun <reified T : Event> IEventHandler.handler(
-    noinline condition: () -> Boolean = { true },
+inline fun <reified T : Any> IEventHandler.handler(
+    noinline condition: (() -> Boolean)? = null,
     ignoresCondition: Boolean = false,
     priority: Priority = Priority.NORMAL,
     timeout: Long? = null,
+    receivesCanceled: Boolean = false,
     noinline handler: (T) -> Unit
-) {
-    EventBus.registerEventHook(
+): Subscription {
+    return EventBus.registerEventHook(
         T::class.java,
         EventHook(
             this,
@@ -69,7 +92,8 @@ inline fun <reified T : Event> IEventHandler.handler(
             ignoresCondition,
             priority,
             condition,
-            timeout
+            timeout,
+            receivesCanceled
         )
     )
 }
@@ -84,16 +108,17 @@ inline fun <reified T : Event> IEventHandler.handler(
  * @param priority The priority of the event hook.
  * @param timeout An optional timeout for the event hook.
  * @param handler The handler function for the event.
+ * @return The subscription of the registered hook.
  * @throws IllegalStateException If the class does not implement IEventHandler.
  */
 inline fun <reified T : ReturnableEvent<R>, R> IEventHandler.returnableHandler(
-    noinline condition: () -> Boolean = { true },
+    noinline condition: (() -> Boolean)? = null,
     ignoresCondition: Boolean = false,
     priority: Priority = Priority.NORMAL,
     timeout: Long? = null,
     noinline returnableHandler: (T) -> R
-) {
-    EventBus.registerReturnableEventHook(
+): Subscription {
+    return EventBus.registerReturnableEventHook(
         T::class.java,
         ReturnableEventHook(
             this,
@@ -120,7 +145,28 @@ enum class EventProcessingType {
     /**
      * Synchronous event processing (alias for Sync).
      */
-    FULL_SYNC;
+    FULL_SYNC,
+
+    /**
+     * Parallel event processing.
+     * All eligible hooks of a priority tier run concurrently on the executor, tiers run in priority
+     * order, and the caller waits for all of them against a single overall deadline.
+     */
+    HANDLER_PARALLEL,
+
+    /**
+     * Asynchronous event processing on a single worker.
+     * The event is submitted to the executor once and all of its hooks run on that worker in
+     * priority order, so the caller does not wait.
+     */
+    ASYNC_ORDERED,
+
+    /**
+     * Asynchronous event processing through a preallocated ring buffer.
+     * Posting never locks or allocates a queue node; a single consumer thread runs the hooks of each
+     * event in priority order, in the order the events were posted.
+     */
+    RING_BUFFER;
 
     companion object {
         fun fromString(type: String): EventProcessingType {
@@ -128,6 +174,9 @@ enum class EventProcessingType {
                 "ASYNC" -> ASYNC
                 "HANDLERASYNC" -> HANDLER_ASYNC
                 "FULLSYNC" -> FULL_SYNC
+                "HANDLERPARALLEL" -> HANDLER_PARALLEL
+                "ASYNCORDERED" -> ASYNC_ORDERED
+                "RINGBUFFER" -> RING_BUFFER
                 else -> throw IllegalArgumentException("Unknown EventProcessingType: $type")
             }
         }
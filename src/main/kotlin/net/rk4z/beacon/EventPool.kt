@@ -0,0 +1,94 @@
+@file:Suppress("unused", "MemberVisibilityCanBePrivate")
+
+package net.rk4z.beacon
+
+import java.util.ArrayDeque
+import java.util.concurrent.atomic.AtomicBoolean
+
+/**
+ * A per-thread pool of reusable events.
+ *
+ * Each thread keeps its own free list, so acquiring and releasing never synchronize. An event
+ * released on a different thread than the one that acquired it simply joins that thread's list.
+ * Released events are reset and their metadata is cleared before they are reused.
+ *
+ * Handlers must not keep a reference to a pooled event, or re-post it asynchronously, after the
+ * dispatch that delivered it has returned.
+ *
+ * @param T The type of the pooled event.
+ * @property maxSize The maximum number of idle events kept per thread.
+ * @param factory Creates a new event when the pool of the current thread is empty.
+ */
+class EventPool<T>(
+    val maxSize: Int = 64,
+    private val factory: () -> T
+) where T : Event, T : PooledEvent {
+    private val free = ThreadLocal.withInitial { ArrayDeque<T>() }
+
+    init {
+        require(maxSize >= 0) { "maxSize must not be negative" }
+    }
+
+    /**
+     * Takes an event from the pool of the current thread, creating one if it is empty.
+     *
+     * @return A reset event.
+     */
+    fun acquire(): T = free.get().pollLast() ?: factory()
+
+    /**
+     * Resets the event and returns it to the pool of the current thread.
+     * The event is dropped if the pool is already full.
+     *
+     * @param event The event to release.
+     */
+    fun release(event: T) {
+        event.reset()
+        event.clearMeta()
+
+        val pool = free.get()
+        if (pool.size < maxSize) {
+            pool.addLast(event)
+        }
+    }
+}
+
+/**
+ * Keeps pooled events out of the bridges that hand events to code running after the dispatch has
+ * returned, such as suspending handlers and flows. By then the event may already be reset and
+ * reused by the posting thread.
+ */
+internal object PooledEvents {
+    private val warned = object : ClassValue<AtomicBoolean>() {
+        override fun computeValue(type: Class<*>): AtomicBoolean = AtomicBoolean()
+    }
+
+    /**
+     * Rejects a subscription to a pooled event class.
+     *
+     * @param eventClass The subscribed class.
+     * @param bridge Describes the subscriber in the error message.
+     * @throws IllegalArgumentException If [eventClass] implements [PooledEvent].
+     */
+    fun requireNotPooled(eventClass: Class<*>, bridge: String) {
+        require(!PooledEvent::class.java.isAssignableFrom(eventClass)) {
+            "$bridge cannot receive pooled events, which are reused once their dispatch returns: ${eventClass.name}"
+        }
+    }
+
+    /**
+     * Returns whether [event] is pooled and must be skipped. The first skipped event of each class
+     * is logged.
+     *
+     * @param event The dispatched event.
+     * @param bridge Describes the subscriber in the log message.
+     */
+    fun skip(event: Any, bridge: String): Boolean {
+        if (event !is PooledEvent) return false
+
+        if (warned.get(event.javaClass).compareAndSet(false, true)) {
+            EventBus.logger.warn("Skipping pooled event ${event.javaClass.simpleName} in $bridge, which would outlive its dispatch")
+        }
+        return true
+    }
+}
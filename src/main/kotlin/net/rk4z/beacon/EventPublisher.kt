@@ -0,0 +1,74 @@
+@file:Suppress("unused", "MemberVisibilityCanBePrivate")
+
+package net.rk4z.beacon
+
+import java.util.concurrent.Executor
+import java.util.concurrent.Flow
+import java.util.concurrent.SubmissionPublisher
+import java.util.concurrent.atomic.LongAdder
+
+/**
+ * A [Flow.Publisher] of the events of a class.
+ *
+ * Every subscriber gets its own bounded buffer and receives events only as it requests them. An
+ * event that does not fit into a subscriber's buffer is dropped for that subscriber and counted in
+ * [droppedCount], so a slow subscriber never blocks the posting thread or the other subscribers.
+ *
+ * The publisher holds a hook on the bus until it is closed. Closing it completes every subscriber.
+ *
+ * Subscribers receive events after their dispatch has returned, so [PooledEvent]s, which are reset
+ * and reused by then, are never published. Pooled events of a subclass of [eventClass] are skipped.
+ *
+ * @param T The type of the events.
+ * @property eventClass The class or interface of the published events.
+ */
+class EventPublisher<T : Any> internal constructor(
+    val eventClass: Class<T>,
+    executor: Executor,
+    bufferCapacity: Int,
+    priority: Priority
+) : Flow.Publisher<T>, AutoCloseable {
+    private val publisher = SubmissionPublisher<T>(executor, bufferCapacity)
+    private val dropped = LongAdder()
+    private val subscription: Subscription
+
+    init {
+        PooledEvents.requireNotPooled(eventClass, "Publishers")
+
+        val owner = object : IEventHandler {}
+        subscription = EventBus.registerEventHook(eventClass, EventHook(owner, Handler { publish(it) }, true, priority))
+    }
+
+    /**
+     * The number of deliveries dropped because a subscriber's buffer was full.
+     */
+    val droppedCount: Long
+        get() = dropped.sum()
+
+    /**
+     * The number of current subscribers.
+     */
+    val subscriberCount: Int
+        get() = publisher.numberOfSubscribers
+
+    override fun subscribe(subscriber: Flow.Subscriber<in T>) {
+        publisher.subscribe(subscriber)
+    }
+
+    private fun publish(event: T) {
+        if (!publisher.hasSubscribers() || PooledEvents.skip(event, "a publisher")) return
+
+        publisher.offer(event) { _, _ ->
+            dropped.increment()
+            false
+        }
+    }
+
+    /**
+     * Removes the hook from the bus and completes every subscriber.
+     */
+    override fun close() {
+        subscription.unsubscribe()
+        publisher.close()
+    }
+}
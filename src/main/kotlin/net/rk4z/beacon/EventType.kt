@@ -0,0 +1,65 @@
+@file:Suppress("unused", "MemberVisibilityCanBePrivate", "UNCHECKED_CAST")
+
+package net.rk4z.beacon
+
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Describes an event class.
+ *
+ * One descriptor is created per class and cached in a [ClassValue], so everything the bus needs to
+ * know about a posted event is a single lookup away and never goes through reflection.
+ *
+ * @param T The type of the event.
+ * @property eventClass The described class.
+ * @property name The simple name of the class, used for logging.
+ * @property id A dense integer id, unique per described class.
+ * @property isCancelable Whether the class extends [CancelableEvent].
+ * @property isReturnable Whether the class extends [ReturnableEvent].
+ */
+class EventType<T : Any> private constructor(val eventClass: Class<T>) {
+    val name: String = eventClass.simpleName
+    val id: Int = nextId.getAndIncrement()
+    val isCancelable: Boolean = CancelableEvent::class.java.isAssignableFrom(eventClass)
+    val isReturnable: Boolean = ReturnableEvent::class.java.isAssignableFrom(eventClass)
+
+    /**
+     * The dispatch plan cache slot owned by the [HookRegistry] of event hooks.
+     */
+    @Volatile
+    @JvmField
+    internal var resolved: Any? = null
+
+    /**
+     * The dispatch plan cache slot owned by the [HookRegistry] of returnable event hooks.
+     */
+    @Volatile
+    @JvmField
+    internal var resolvedReturnable: Any? = null
+
+    /**
+     * The registries that track this descriptor to evict its slots, one bit per registry.
+     */
+    @JvmField
+    internal val trackedBy = AtomicInteger()
+
+    override fun toString(): String = "EventType($name, id=$id)"
+
+    companion object {
+        private val nextId = AtomicInteger()
+
+        private val types = object : ClassValue<EventType<*>>() {
+            override fun computeValue(type: Class<*>): EventType<*> = EventType(type)
+        }
+
+        /**
+         * Returns the descriptor of the given class.
+         *
+         * @param T The type of the event.
+         * @param eventClass The class to describe.
+         * @return The cached descriptor.
+         */
+        @JvmStatic
+        fun <T : Any> of(eventClass: Class<T>): EventType<T> = types.get(eventClass) as EventType<T>
+    }
+}
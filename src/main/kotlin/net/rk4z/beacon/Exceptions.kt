@@ -1,3 +1,5 @@
 package net.rk4z.beacon
 
-class UnsupportedParameterException(message: String) : Exception(message)
\ No newline at end of file
+class UnsupportedParameterException(message: String) : Exception(message)
+
+class QueueOverflowException(message: String) : RuntimeException(message)
\ No newline at end of file
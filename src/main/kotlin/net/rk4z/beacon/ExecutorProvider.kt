@@ -0,0 +1,76 @@
+@file:Suppress("unused")
+
+package net.rk4z.beacon
+
+import java.util.ServiceLoader
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.ForkJoinPool
+
+/**
+ * Creates the executor the [EventBus] runs asynchronous hooks on.
+ *
+ * A provider can be passed to [EventBus.initialize], or registered as a service under
+ * `META-INF/services/net.rk4z.beacon.ExecutorProvider` to replace the default for the whole
+ * application. Delayed posts are timed on a separate single-thread scheduler owned by the bus, so
+ * the created executor does not have to support scheduling.
+ *
+ * The bus owns the created executor and shuts it down in [EventBus.shutdown].
+ */
+fun interface ExecutorProvider {
+    /**
+     * Creates the executor.
+     *
+     * @param threadPoolSize The thread pool size passed to [EventBus.initialize].
+     * @return A new executor.
+     */
+    fun create(threadPoolSize: Int): ExecutorService
+
+    companion object {
+        /**
+         * A fixed pool of platform threads. This is the default.
+         */
+        @JvmStatic
+        fun fixed(): ExecutorProvider = ExecutorProvider { Executors.newFixedThreadPool(it) }
+
+        /**
+         * A work-stealing [ForkJoinPool], which suits short CPU-bound hooks.
+         */
+        @JvmStatic
+        fun forkJoin(): ExecutorProvider = ExecutorProvider { ForkJoinPool(it) }
+
+        /**
+         * One virtual thread per task, which suits hooks doing blocking I/O.
+         * The pool size is ignored. This requires JDK 21 or later; on older runtimes [create]
+         * throws an [UnsupportedOperationException].
+         */
+        @JvmStatic
+        fun virtualThreads(): ExecutorProvider = ExecutorProvider {
+            val factory = try {
+                Executors::class.java.getMethod("newVirtualThreadPerTaskExecutor")
+            } catch (e: NoSuchMethodException) {
+                throw UnsupportedOperationException("Virtual threads require JDK 21 or later", e)
+            }
+            factory.invoke(null) as ExecutorService
+        }
+
+        /**
+         * Returns whether the running JDK supports [virtualThreads].
+         */
+        @JvmStatic
+        fun supportsVirtualThreads(): Boolean {
+            return Executors::class.java.methods.any { it.name == "newVirtualThreadPerTaskExecutor" }
+        }
+
+        /**
+         * Returns the first provider registered through [ServiceLoader], or [fixed] if there is none.
+         *
+         * @param classLoader The class loader to look the provider up with.
+         * @return The provider to use by default.
+         */
+        @JvmStatic
+        fun load(classLoader: ClassLoader): ExecutorProvider {
+            return ServiceLoader.load(ExecutorProvider::class.java, classLoader).firstOrNull() ?: fixed()
+        }
+    }
+}
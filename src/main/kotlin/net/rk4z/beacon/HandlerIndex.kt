@@ -0,0 +1,81 @@
+package net.rk4z.beacon
+
+import net.rk4z.beacon.processor.HandlerIndexProcessor
+import java.net.URL
+
+/**
+ * Reads the handler index written at build time by [HandlerIndexProcessor].
+ *
+ * Each classpath root (a directory or jar) ships its own index, and only lists the handlers
+ * compiled into it. The index is therefore only trusted for a package if every root containing
+ * the package has one.
+ */
+internal object HandlerIndex {
+    /**
+     * Returns the indexed handler classes in [packageName] and its subpackages.
+     *
+     * @param packageName The package to look up.
+     * @param classLoader The class loader to read the index and load the classes with.
+     * @return The indexed handler classes, or null if the package has to be scanned: it has no
+     * indexed handlers, or part of it lives in a root without an index, such as a jar built
+     * without the annotation processor.
+     */
+    fun handlersIn(packageName: String, classLoader: ClassLoader): List<Class<out IEventHandler>>? {
+        val indexes = classLoader.getResources(HandlerIndexProcessor.INDEX_RESOURCE).toList()
+        if (indexes.isEmpty()) return null
+
+        val indexedRoots = indexes.mapTo(HashSet()) { rootOf(it, HandlerIndexProcessor.INDEX_RESOURCE) }
+        val packagePath = packageName.replace('.', '/')
+        val unindexedRoots = classLoader.getResources(packagePath).toList()
+            .map { rootOf(it, packagePath) }
+            .filter { it !in indexedRoots }
+        if (unindexedRoots.isNotEmpty()) {
+            EventBus.logger.info("Scanning $packageName, which is also found in roots without a handler index: $unindexedRoots")
+            return null
+        }
+
+        val prefix = "$packageName."
+        val names = read(indexes).filter { it.startsWith(prefix) }
+        if (names.isEmpty()) return null
+        return loadClasses(names, classLoader)
+    }
+
+    /**
+     * Loads handler classes by name without initializing them.
+     *
+     * @param names The binary class names.
+     * @param classLoader The class loader to load the classes with.
+     * @return The loaded classes, or null if any of them could not be loaded as an event handler.
+     */
+    fun loadClasses(names: Collection<String>, classLoader: ClassLoader): List<Class<out IEventHandler>>? {
+        val classes = ArrayList<Class<out IEventHandler>>(names.size)
+        for (name in names) {
+            try {
+                classes.add(Class.forName(name, false, classLoader).asSubclass(IEventHandler::class.java))
+            } catch (e: ReflectiveOperationException) {
+                EventBus.logger.warn("Event handler could not be loaded: $name", e)
+                return null
+            } catch (e: ClassCastException) {
+                EventBus.logger.warn("Class is not an event handler: $name")
+                return null
+            }
+        }
+        return classes
+    }
+
+    /**
+     * Returns the classpath root a resource was found in, e.g. `jar:file:/app.jar!/` for
+     * `jar:file:/app.jar!/net/example`.
+     */
+    private fun rootOf(url: URL, path: String): String = url.toExternalForm().removeSuffix("/").removeSuffix(path)
+
+    private fun read(indexes: List<URL>): Set<String> {
+        val names = LinkedHashSet<String>()
+        for (url in indexes) {
+            url.openStream().bufferedReader().useLines { lines ->
+                lines.map { it.trim() }.filter { it.isNotEmpty() && !it.startsWith("#") }.forEach { names.add(it) }
+            }
+        }
+        return names
+    }
+}
@@ -0,0 +1,365 @@
+package net.rk4z.beacon
+
+import java.lang.ref.WeakReference
+import java.util.Collections
+import java.util.IdentityHashMap
+import java.util.concurrent.ConcurrentLinkedQueue
+
+/**
+ * Stores the hooks registered per event class and resolves the dispatch plan of a concrete event
+ * class from the hooks of all its superclasses and interfaces.
+ *
+ * The registered hooks live in an immutable [State] published through a volatile field, so the
+ * posting path never locks. Writers are serialized and publish a new state on every change.
+ *
+ * Resolved plans are cached on the [EventType] of each concrete class and tagged with the version
+ * of the state they were built from. A stale plan is rebuilt on the next post instead of walking
+ * the hierarchy every time. Removing hooks also evicts the cached plans that may reference them,
+ * so a removed hook is not kept reachable by event classes that are not posted again. Ties between
+ * hooks of equal priority are broken by [Subscription.order], so the merged plan is deterministic.
+ *
+ * Hooks are keyed by identity, so a handler may register any number of hooks for the same class.
+ * The bus keeps one registry for [EventHook]s and one for [ReturnableEventHook]s.
+ *
+ * @param H The type of the stored hooks.
+ * @param returnable Whether the registry stores returnable hooks. Each kind caches its plans in
+ * its own slot of the [EventType].
+ */
+internal class HookRegistry<H : Hook>(private val returnable: Boolean) : SubscriptionStore {
+    private val lock = Any()
+    private var nextOrder: Long = 0
+    private var version: Long = 0
+    private val owners = IdentityHashMap<IEventHandler, MutableList<Subscription>>()
+
+    @Volatile
+    private var state: State = State(emptyMap(), version)
+
+    /**
+     * The event types whose slot may hold a plan of this registry, so removals can evict them.
+     * Each descriptor is added once and only weakly referenced.
+     */
+    private val cachedTypes = ConcurrentLinkedQueue<WeakReference<EventType<*>>>()
+
+    private val batches = ThreadLocal<PendingBatch?>()
+
+    /**
+     * Registers a hook for the given class, or records it in the batch open on this thread.
+     *
+     * @param eventClass The class (or interface) the hook subscribes to.
+     * @param hook The hook to register.
+     * @return The subscription of the hook. If the hook is already registered for the class, the
+     * existing subscription is returned instead.
+     */
+    fun register(eventClass: Class<*>, hook: H): Subscription {
+        val subscription = Subscription(eventClass, hook, hook.handlerClass, hook.priority, this)
+
+        val batch = batches.get()
+        if (batch != null) {
+            batch.pending.add(subscription)
+            return subscription
+        }
+
+        publish(listOf(subscription))
+        if (subscription.isActive) return subscription
+        return state.declared[eventClass]?.firstOrNull { it.hook === hook } ?: subscription
+    }
+
+    /**
+     * Opens a registration batch on the current thread, or joins the one already open.
+     *
+     * @return The batch collecting this thread's registrations, with one more level entered.
+     */
+    internal fun joinBatch(): PendingBatch {
+        val current = batches.get()
+        if (current != null) {
+            current.depth++
+            return current
+        }
+        return PendingBatch(this).also { batches.set(it) }
+    }
+
+    /**
+     * Runs [block] with a batch open on the current thread and returns the collected subscriptions
+     * without publishing them, so the caller can publish registrations from several threads in a
+     * deterministic order.
+     *
+     * @param block The block registering hooks.
+     * @return The subscriptions registered by the block, in registration order.
+     */
+    fun collect(block: () -> Unit): List<Subscription> {
+        check(batches.get() == null) { "A registration batch is already open on this thread" }
+
+        val batch = PendingBatch(this)
+        batches.set(batch)
+        try {
+            block()
+        } finally {
+            batches.remove()
+        }
+        return batch.pending.toList()
+    }
+
+    internal fun closeBatch(batch: PendingBatch) {
+        if (batches.get() === batch) {
+            batches.remove()
+        }
+        publish(batch.pending)
+        batch.pending.clear()
+    }
+
+    /**
+     * Adds the given subscriptions in order with a single state swap, skipping hooks that are
+     * already registered for their class.
+     *
+     * @param entries The subscriptions to publish.
+     * @return The number of subscriptions that were added.
+     */
+    fun publish(entries: List<Subscription>): Int {
+        if (entries.isEmpty()) return 0
+
+        val published = synchronized(lock) {
+            val declared = state.declared
+            val added = LinkedHashMap<Class<*>, MutableList<Subscription>>()
+            val seen = HashMap<Class<*>, MutableSet<Any>>()
+            for (subscription in entries) {
+                val known = seen.getOrPut(subscription.eventClass) {
+                    Collections.newSetFromMap(IdentityHashMap<Any, Boolean>()).apply {
+                        declared[subscription.eventClass]?.forEach { add(it.hook) }
+                    }
+                }
+                if (known.add(subscription.hook)) {
+                    subscription.order = nextOrder++
+                    added.getOrPut(subscription.eventClass) { ArrayList() }.add(subscription)
+                }
+            }
+            if (added.isEmpty()) return 0
+
+            val updated = HashMap(declared)
+            for ((eventClass, subscriptions) in added) {
+                updated[eventClass] = (declared[eventClass] ?: emptyList()) + subscriptions
+                for (subscription in subscriptions) {
+                    subscription.isActive = true
+                    owners.getOrPut(subscription.owner) { ArrayList() }.add(subscription)
+                }
+            }
+            state = State(updated, ++version)
+            added.values.flatten()
+        }
+
+        val kind = if (returnable) "returnable event hook" else "event hook"
+        for (subscription in published) {
+            EventBus.logger.info("Registered $kind for ${subscription.eventClass.simpleName} with priority ${subscription.priority}")
+        }
+        return published.size
+    }
+
+    /**
+     * Replaces the hooks of active subscriptions with a single state swap.
+     * Each replacement keeps the class and registration order of the subscription it replaces, so
+     * the dispatch order is unchanged.
+     *
+     * @param replacements The subscriptions to replace and their new hooks.
+     * @return The subscriptions of the new hooks.
+     */
+    fun replace(replacements: List<Pair<Subscription, H>>): List<Subscription> {
+        synchronized(lock) {
+            val replaced = IdentityHashMap<Subscription, Subscription>()
+            for ((old, hook) in replacements) {
+                if (!old.isActive) continue
+
+                val subscription = Subscription(old.eventClass, hook, hook.handlerClass, hook.priority, this)
+                subscription.order = old.order
+                replaced[old] = subscription
+            }
+            if (replaced.isEmpty()) return emptyList()
+
+            val updated = HashMap(state.declared)
+            for (eventClass in replaced.values.map { it.eventClass }.distinct()) {
+                updated[eventClass] = updated[eventClass]!!.map { replaced[it] ?: it }
+            }
+            for ((old, subscription) in replaced) {
+                old.isActive = false
+                owners[old.owner]?.let { owned ->
+                    owned.removeIf { it === old }
+                    if (owned.isEmpty()) owners.remove(old.owner)
+                }
+                subscription.isActive = true
+                owners.getOrPut(subscription.owner) { ArrayList() }.add(subscription)
+            }
+            state = State(updated, ++version)
+            return replaced.values.toList()
+        }
+    }
+
+    override fun remove(subscription: Subscription): Boolean {
+        synchronized(lock) {
+            if (!subscription.isActive) return false
+
+            owners[subscription.owner]?.let { owned ->
+                owned.removeIf { it === subscription }
+                if (owned.isEmpty()) owners.remove(subscription.owner)
+            }
+            state = state.without(listOf(subscription), ++version)
+            evict(listOf(subscription))
+            return true
+        }
+    }
+
+    override fun removeOwner(owner: IEventHandler): Int {
+        synchronized(lock) {
+            val owned = owners.remove(owner) ?: return 0
+            state = state.without(owned, ++version)
+            evict(owned)
+            return owned.size
+        }
+    }
+
+    /**
+     * Removes every subscription whose owner matches [predicate] with a single state swap.
+     *
+     * @param predicate Selects the owners to remove.
+     * @return The number of removed subscriptions.
+     */
+    fun removeOwners(predicate: (IEventHandler) -> Boolean): Int {
+        synchronized(lock) {
+            val matching = owners.keys.filter(predicate)
+            if (matching.isEmpty()) return 0
+
+            val owned = matching.flatMap { owners.remove(it)!! }
+            state = state.without(owned, ++version)
+            evict(owned)
+            return owned.size
+        }
+    }
+
+    /**
+     * Returns the dispatch plan for a concrete event class.
+     * This never blocks, even while other threads are registering hooks.
+     *
+     * @param type The descriptor of the posted event's runtime class.
+     * @return The resolved plan, which is [DispatchPlan.EMPTY] if nothing subscribes to the class.
+     */
+    @Suppress("UNCHECKED_CAST")
+    fun planFor(type: EventType<*>): DispatchPlan<H> {
+        val state = state
+        val cached = slotOf(type)
+        if (cached != null && cached.version == state.version) {
+            return cached.plan as DispatchPlan<H>
+        }
+
+        val plan = state.resolve(type.eventClass) as DispatchPlan<H>
+        val resolved = Resolved(state.version, plan)
+        if (returnable) type.resolvedReturnable = resolved else type.resolved = resolved
+        if (cached == null) track(type)
+
+        // A removal that ran while the plan was built may have missed this slot.
+        if (this.state !== state && slotOf(type) === resolved) {
+            if (returnable) type.resolvedReturnable = null else type.resolved = null
+        }
+        return plan
+    }
+
+    private fun track(type: EventType<*>) {
+        val bit = if (returnable) 2 else 1
+        if (type.trackedBy.getAndUpdate { it or bit } and bit == 0) {
+            cachedTypes.add(WeakReference(type))
+        }
+    }
+
+    private fun slotOf(type: EventType<*>): Resolved? {
+        return (if (returnable) type.resolvedReturnable else type.resolved) as Resolved?
+    }
+
+    /**
+     * Clears the cached plans of every event class that the removed subscriptions applied to.
+     * Must be called after the new state is published.
+     *
+     * @param removed The removed subscriptions, or null to clear every cached plan.
+     */
+    private fun evict(removed: List<Subscription>?) {
+        val eventClasses = removed?.mapTo(HashSet()) { it.eventClass }
+        val iterator = cachedTypes.iterator()
+        while (iterator.hasNext()) {
+            val type = iterator.next().get()
+            if (type == null) {
+                iterator.remove()
+            } else if (eventClasses == null || eventClasses.any { it.isAssignableFrom(type.eventClass) }) {
+                if (returnable) type.resolvedReturnable = null else type.resolved = null
+            }
+        }
+    }
+
+    /**
+     * Removes every registered hook.
+     */
+    fun clear() {
+        synchronized(lock) {
+            for (subscriptions in state.declared.values) {
+                subscriptions.forEach { it.isActive = false }
+            }
+            owners.clear()
+            state = State(emptyMap(), ++version)
+            evict(null)
+        }
+    }
+
+    /**
+     * The registered hooks per declared class.
+     *
+     * @property version Increases with every published state, so cached plans can be checked
+     * against it without keeping the state itself reachable.
+     */
+    private class State(val declared: Map<Class<*>, List<Subscription>>, val version: Long) {
+        fun resolve(eventClass: Class<*>): DispatchPlan<Hook> {
+            val subscriptions = ArrayList<Subscription>()
+            for (type in hierarchyOf(eventClass)) {
+                declared[type]?.let { subscriptions.addAll(it) }
+            }
+            if (subscriptions.isEmpty()) return DispatchPlan.EMPTY
+
+            subscriptions.sortWith(compareBy<Subscription> { it.priority.level }.thenBy { it.order })
+            return DispatchPlan.compile(subscriptions.map { it.hook as Hook })
+        }
+
+        /**
+         * Returns a state without the given subscriptions, copying each affected class once.
+         */
+        fun without(removed: List<Subscription>, version: Long): State {
+            val updated = HashMap(declared)
+            for ((eventClass, subscriptions) in removed.groupBy { it.eventClass }) {
+                val gone = Collections.newSetFromMap(IdentityHashMap<Subscription, Boolean>()).apply { addAll(subscriptions) }
+                val remaining = updated[eventClass]?.filterNot { it in gone }
+                if (remaining.isNullOrEmpty()) {
+                    updated.remove(eventClass)
+                } else {
+                    updated[eventClass] = remaining
+                }
+                subscriptions.forEach { it.isActive = false }
+            }
+            return State(updated, version)
+        }
+    }
+
+    private class Resolved(val version: Long, val plan: DispatchPlan<Hook>)
+
+    private companion object {
+        fun hierarchyOf(eventClass: Class<*>): Set<Class<*>> {
+            val types = LinkedHashSet<Class<*>>()
+            var current: Class<*>? = eventClass
+            while (current != null) {
+                types.add(current)
+                collectInterfaces(current, types)
+                current = current.superclass
+            }
+            return types
+        }
+
+        fun collectInterfaces(type: Class<*>, into: MutableSet<Class<*>>) {
+            for (iface in type.interfaces) {
+                if (into.add(iface)) {
+                    collectInterfaces(iface, into)
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+@file:Suppress("UNCHECKED_CAST")
+
+package net.rk4z.beacon
+
+/**
+ * Defers constructing an event handler until one of its events is posted.
+ *
+ * At startup only the [Subscribe] methods of the handler class are read. Each method is
+ * registered as a stub hook with the method's event class and priority. The first stub that
+ * receives an event constructs the handler, binds its methods and swaps every stub for the real
+ * hook in place, so the dispatch order is the same as if the handler had been constructed eagerly.
+ *
+ * The stubs are owned by this object until the handler is constructed, and by the handler afterwards.
+ * Since callers never hold this object, [EventBus.unregisterHandlers] removes the stubs by handler
+ * class. Once they are removed, the handler is no longer constructed.
+ *
+ * @param type The handler class.
+ * @param methods The [Subscribe] methods of the handler class.
+ */
+internal class LazyHandler(
+    val type: Class<out IEventHandler>,
+    private val methods: List<SubscriberMethod>
+) : IEventHandler {
+    private val stubs = ArrayList<Subscription>(methods.size)
+
+    @Volatile
+    private var handlers: Array<Handler<Any>>? = null
+
+    @Volatile
+    private var instance: IEventHandler? = null
+
+    /**
+     * Registers a stub hook for every method.
+     */
+    fun install() {
+        methods.forEachIndexed { index, method ->
+            val stub = EventHook<Any>(
+                this,
+                { event -> deliver(index, event) },
+                true,
+                method.subscribe.priority,
+                null,
+                method.timeout,
+                method.subscribe.receivesCanceled
+            )
+            stubs.add(EventBus.registerEventHook(method.eventClass as Class<Any>, stub))
+        }
+    }
+
+    private fun deliver(index: Int, event: Any) {
+        val handlers = handlers ?: materialize() ?: return
+        val instance = instance!!
+        if (methods[index].subscribe.ignoresCondition || instance.handleEvents()) {
+            handlers[index].handle(event)
+        }
+    }
+
+    /**
+     * Constructs the handler and swaps the stubs for its hooks.
+     *
+     * @return The bound handlers, or null if the stubs were removed before any event arrived.
+     */
+    @Synchronized
+    private fun materialize(): Array<Handler<Any>>? {
+        handlers?.let { return it }
+        if (stubs.none { it.isActive }) return null
+
+        EventBus.logger.info("Initializing lazy event handler: ${type.name}")
+        val instance = type.getDeclaredConstructor().newInstance()
+        val hooks = methods.map { it.hook(instance) }
+        this.instance = instance
+
+        val bound = Array(hooks.size) { hooks[it].handler }
+        handlers = bound
+        EventBus.registry.replace(stubs.zip(hooks) { stub, hook -> stub to hook as EventHook<in Event> })
+        stubs.clear()
+        return bound
+    }
+
+    override fun initHandlers() {
+    }
+
+    companion object {
+        /**
+         * Returns whether [type] can be constructed lazily, which requires that all of its hooks are
+         * non-returnable [Subscribe] methods and that it does not override [IEventHandler.initHandlers].
+         *
+         * @param type The handler class.
+         * @param methods The [Subscribe] methods of the handler class.
+         * @return true if the handler can be deferred.
+         */
+        fun supports(type: Class<out IEventHandler>, methods: List<SubscriberMethod>): Boolean {
+            if (methods.isEmpty() || methods.any { it.isReturnable }) return false
+            return type.getMethod("initHandlers").declaringClass == IEventHandler::class.java
+        }
+    }
+}
@@ -0,0 +1,45 @@
+@file:Suppress("unused", "UNCHECKED_CAST")
+
+package net.rk4z.beacon
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * A typed metadata key.
+ *
+ * Keys are interned by name and each one is assigned a small slot index, so an [Event] can store
+ * typed metadata in a compact array instead of a hash map. Keys should be created once and kept in
+ * a constant; interning the same name with different value types shares a single slot.
+ *
+ * @param T The type of the metadata value.
+ * @property name The name of the key.
+ * @property slot The slot index of the key.
+ */
+class MetaKey<T> private constructor(val name: String, val slot: Int) {
+    override fun toString(): String = "MetaKey($name)"
+
+    companion object {
+        private val keys = ConcurrentHashMap<String, MetaKey<*>>()
+        private val nextSlot = AtomicInteger()
+
+        /**
+         * The number of interned keys.
+         */
+        @JvmStatic
+        val count: Int
+            get() = nextSlot.get()
+
+        /**
+         * Returns the key with the given name, interning it on first use.
+         *
+         * @param T The type of the metadata value.
+         * @param name The name of the key.
+         * @return The interned key.
+         */
+        @JvmStatic
+        fun <T> of(name: String): MetaKey<T> {
+            return keys.computeIfAbsent(name) { MetaKey<Any?>(it, nextSlot.getAndIncrement()) } as MetaKey<T>
+        }
+    }
+}
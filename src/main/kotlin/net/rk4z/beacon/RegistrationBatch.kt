@@ -0,0 +1,68 @@
+@file:Suppress("unused", "MemberVisibilityCanBePrivate")
+
+package net.rk4z.beacon
+
+/**
+ * Collects hook registrations made on the opening thread and publishes them together.
+ *
+ * While a batch is open, [EventBus.registerEventHook] and [EventBus.registerReturnableEventHook]
+ * only record the hook. The state of each registry and the affected dispatch plans are rebuilt
+ * once when the batch is committed, and duplicates are dropped at that point; their subscriptions
+ * never become active. Opening a batch while one is
+ * already open on the same thread joins the outer batch, which is committed when the outermost
+ * one closes. Every call returns its own handle, so committing a level and then closing it, as in
+ * a try-with-resources block, only leaves that level once.
+ *
+ * @see EventBus.openBatch
+ * @see EventBus.batch
+ */
+class RegistrationBatch internal constructor(
+    private val batches: List<PendingBatch>
+) : AutoCloseable {
+    /**
+     * Whether this level of the batch has not been committed yet.
+     */
+    var isOpen: Boolean = true
+        private set
+
+    /**
+     * The number of hooks waiting to be published.
+     */
+    val size: Int
+        get() = batches.sumOf { it.pending.size }
+
+    /**
+     * Leaves this batch level and publishes the collected hooks if it is the outermost one.
+     * Every registry is closed even if publishing to an earlier one throws.
+     *
+     * @throws IllegalStateException If this level was already committed.
+     */
+    fun commit() {
+        check(isOpen) { "Registration batch is already committed" }
+        isOpen = false
+
+        var failure: Throwable? = null
+        for (batch in batches) {
+            if (--batch.depth > 0) continue
+            try {
+                batch.registry.closeBatch(batch)
+            } catch (e: Throwable) {
+                val first = failure
+                if (first == null) failure = e else first.addSuppressed(e)
+            }
+        }
+        failure?.let { throw it }
+    }
+
+    override fun close() {
+        if (isOpen) commit()
+    }
+}
+
+/**
+ * The registrations collected for [registry] on one thread, shared by every nested level of a batch.
+ */
+internal class PendingBatch(val registry: HookRegistry<*>) {
+    val pending: MutableList<Subscription> = mutableListOf()
+    var depth: Int = 1
+}
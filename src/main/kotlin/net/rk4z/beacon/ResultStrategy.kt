@@ -0,0 +1,209 @@
+@file:Suppress("unused")
+
+package net.rk4z.beacon
+
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.ExecutorCompletionService
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Future
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
+
+/**
+ * How [EventBus.postReturnable] combines the results of the hooks of a returnable event.
+ *
+ * Sequential strategies run the hooks on the posting thread in dispatch order. Parallel strategies
+ * submit every hook to the asynchronous executor at once and wait for them, honouring each hook's
+ * timeout. A hook that throws or times out is logged and contributes no result.
+ *
+ * @param R The type of the hook results.
+ * @param A The type of the aggregated result.
+ */
+sealed class ResultStrategy<R, A> {
+    /**
+     * Combines the results of [hooks].
+     *
+     * @param event The posted event.
+     * @param type The descriptor of the event's class.
+     * @param hooks The eligible hooks in dispatch order.
+     * @param executor The executor parallel strategies run the hooks on.
+     * @return The aggregated result.
+     */
+    internal abstract fun aggregate(
+        event: ReturnableEvent<R>,
+        type: EventType<*>,
+        hooks: List<ReturnableEventHook<ReturnableEvent<R>, R>>,
+        executor: ExecutorService
+    ): A
+
+    /**
+     * Returns the first non-null result in dispatch order. Later hooks do not run.
+     */
+    internal class FirstNonNull<R> : ResultStrategy<R, R?>() {
+        override fun aggregate(
+            event: ReturnableEvent<R>,
+            type: EventType<*>,
+            hooks: List<ReturnableEventHook<ReturnableEvent<R>, R>>,
+            executor: ExecutorService
+        ): R? {
+            for (hook in hooks) {
+                val result = invoke(hook, event) ?: continue
+                event.setResult(result)
+                return result
+            }
+            return null
+        }
+    }
+
+    /**
+     * Returns the non-null results of every hook in dispatch order.
+     */
+    internal class CollectAll<R>(private val parallel: Boolean) : ResultStrategy<R, List<R>>() {
+        override fun aggregate(
+            event: ReturnableEvent<R>,
+            type: EventType<*>,
+            hooks: List<ReturnableEventHook<ReturnableEvent<R>, R>>,
+            executor: ExecutorService
+        ): List<R> = results(event, type, hooks, executor, parallel)
+    }
+
+    /**
+     * Folds the non-null results of every hook in dispatch order with [combiner].
+     */
+    internal class Reduce<R>(private val parallel: Boolean, private val combiner: (R, R) -> R) : ResultStrategy<R, R?>() {
+        override fun aggregate(
+            event: ReturnableEvent<R>,
+            type: EventType<*>,
+            hooks: List<ReturnableEventHook<ReturnableEvent<R>, R>>,
+            executor: ExecutorService
+        ): R? {
+            val result = results(event, type, hooks, executor, parallel).reduceOrNull(combiner)
+            if (result != null) event.setResult(result)
+            return result
+        }
+    }
+
+    /**
+     * Runs every hook in parallel and returns the first non-null result to complete.
+     * The hooks still running are then cancelled.
+     */
+    internal class FirstCompleted<R> : ResultStrategy<R, R?>() {
+        override fun aggregate(
+            event: ReturnableEvent<R>,
+            type: EventType<*>,
+            hooks: List<ReturnableEventHook<ReturnableEvent<R>, R>>,
+            executor: ExecutorService
+        ): R? {
+            if (hooks.isEmpty()) return null
+
+            val completion = ExecutorCompletionService<R>(executor)
+            val futures = hooks.map { hook -> completion.submit { hook.handler.handle(event) } }
+            val timeout = if (hooks.all { it.timeout != null }) hooks.maxOf { it.timeout!! } else null
+            val deadline = timeout?.let { System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(it) }
+
+            try {
+                repeat(futures.size) {
+                    val next = if (deadline == null) {
+                        completion.take()
+                    } else {
+                        completion.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)
+                    }
+                    if (next == null) {
+                        EventBus.logger.error("Timeout occurred while processing event: ${type.name}")
+                        return null
+                    }
+
+                    try {
+                        val result = next.get()
+                        if (result != null) {
+                            event.setResult(result)
+                            return result
+                        }
+                    } catch (e: ExecutionException) {
+                        EventBus.logger.error("Execution error during event processing: ${e.message}", e)
+                    }
+                }
+                return null
+            } catch (e: InterruptedException) {
+                EventBus.logger.error("Thread was interrupted during event processing: ${type.name}", e)
+                Thread.currentThread().interrupt()
+                return null
+            } finally {
+                futures.forEach { it.cancel(true) }
+            }
+        }
+    }
+
+    companion object {
+        /**
+         * Returns the first non-null result in dispatch order and skips the remaining hooks.
+         */
+        @JvmStatic
+        fun <R> firstNonNull(): ResultStrategy<R, R?> = FirstNonNull()
+
+        /**
+         * Returns the non-null results of every hook in dispatch order.
+         *
+         * @param parallel Whether to run the hooks in parallel on the executor.
+         */
+        @JvmStatic
+        @JvmOverloads
+        fun <R> collectAll(parallel: Boolean = false): ResultStrategy<R, List<R>> = CollectAll(parallel)
+
+        /**
+         * Folds the non-null results of every hook in dispatch order.
+         *
+         * @param parallel Whether to run the hooks in parallel on the executor.
+         * @param combiner Combines the accumulated result with the next one.
+         */
+        @JvmStatic
+        @JvmOverloads
+        fun <R> reduce(parallel: Boolean = false, combiner: (R, R) -> R): ResultStrategy<R, R?> = Reduce(parallel, combiner)
+
+        /**
+         * Runs every hook in parallel and returns the first non-null result to complete.
+         */
+        @JvmStatic
+        fun <R> firstCompleted(): ResultStrategy<R, R?> = FirstCompleted()
+
+        private fun <R> invoke(hook: ReturnableEventHook<ReturnableEvent<R>, R>, event: ReturnableEvent<R>): R? {
+            return try {
+                hook.handler.handle(event)
+            } catch (e: Throwable) {
+                EventBus.logger.error("Exception while executing handler: ${e.message}", e)
+                null
+            }
+        }
+
+        private fun <R> results(
+            event: ReturnableEvent<R>,
+            type: EventType<*>,
+            hooks: List<ReturnableEventHook<ReturnableEvent<R>, R>>,
+            executor: ExecutorService,
+            parallel: Boolean
+        ): List<R> {
+            if (!parallel) return hooks.mapNotNull { invoke(it, event) }
+
+            val futures: List<Future<R>> = hooks.map { hook -> executor.submit<R> { hook.handler.handle(event) } }
+            val results = ArrayList<R>(futures.size)
+            for ((i, future) in futures.withIndex()) {
+                val timeout = hooks[i].timeout
+                try {
+                    val result = if (timeout != null) future.get(timeout, TimeUnit.MILLISECONDS) else future.get()
+                    if (result != null) results.add(result)
+                } catch (e: TimeoutException) {
+                    future.cancel(true)
+                    EventBus.logger.error("Timeout occurred while processing event: ${type.name}")
+                } catch (e: ExecutionException) {
+                    EventBus.logger.error("Execution error during event processing: ${e.message}", e)
+                } catch (e: InterruptedException) {
+                    futures.forEach { it.cancel(true) }
+                    EventBus.logger.error("Thread was interrupted during event processing: ${type.name}", e)
+                    Thread.currentThread().interrupt()
+                    break
+                }
+            }
+            return results
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package net.rk4z.beacon
+
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.AtomicLongArray
+import java.util.concurrent.locks.LockSupport
+
+/**
+ * How the consumer of the [EventProcessingType.RING_BUFFER] dispatcher waits while its buffer is empty.
+ */
+enum class WaitStrategy {
+    /**
+     * Spin on the CPU. Lowest latency, but the consumer keeps a core busy even while idle.
+     */
+    BUSY_SPIN,
+
+    /**
+     * Spin briefly, then yield the CPU between checks.
+     */
+    YIELD,
+
+    /**
+     * Spin and yield briefly, then park for short intervals. Uses almost no CPU while idle.
+     */
+    PARK;
+
+    /**
+     * Waits once.
+     *
+     * @param attempt The number of consecutive failed checks so far.
+     */
+    internal fun idle(attempt: Int) {
+        when {
+            this == BUSY_SPIN || attempt < SPIN_TRIES -> Thread.onSpinWait()
+            this == YIELD || attempt < SPIN_TRIES + YIELD_TRIES -> Thread.yield()
+            else -> LockSupport.parkNanos(PARK_NANOS)
+        }
+    }
+
+    private companion object {
+        const val SPIN_TRIES = 100
+        const val YIELD_TRIES = 100
+        val PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100)
+    }
+}
+
+/**
+ * A preallocated multi-producer, single-consumer ring buffer that dispatches events on one
+ * consumer thread.
+ *
+ * Every slot carries a sequence number. A producer claims a position with a single CAS on the
+ * tail, fills the preallocated slot and publishes it by advancing the slot's sequence, so posting
+ * neither locks nor allocates. The consumer drains up to [batchSize] published slots at a time and
+ * runs each event's dispatch plan in priority order, in the order the events were published.
+ * A dispatch that throws is logged and does not stop the consumer.
+ *
+ * @param capacity The number of slots, rounded up to a power of two.
+ * @param waitStrategy How the consumer waits while the buffer is empty.
+ * @param batchSize The maximum number of events drained before the consumer re-checks for shutdown.
+ * @param dispatch Runs the plan of a drained event.
+ */
+internal class RingBufferDispatcher(
+    capacity: Int,
+    private val waitStrategy: WaitStrategy,
+    private val batchSize: Int = 256,
+    private val dispatch: (Event, EventType<*>, DispatchPlan<EventHook<in Event>>) -> Unit
+) {
+    private val size = Integer.highestOneBit(maxOf(capacity, 2) - 1) shl 1
+    private val mask = size - 1L
+    private val sequences = AtomicLongArray(size).apply { for (i in 0 until size) set(i, i.toLong()) }
+    private val slots = Array(size) { Slot() }
+    private val tail = AtomicLong()
+    private var head = 0L
+
+    @Volatile
+    private var running = true
+
+    @Volatile
+    private var consuming = true
+    private val consumer = Thread(::drain, "EventBus-ring-buffer").apply { isDaemon = true }
+
+    init {
+        require(capacity > 0) { "capacity must be positive" }
+        consumer.start()
+    }
+
+    /**
+     * Publishes an event, spinning and then yielding while the buffer is full.
+     * Producers never busy-spin indefinitely, so a full buffer cannot starve the consumer of CPU.
+     * A hook posting from the consumer thread into a full buffer dispatches the event inline,
+     * ahead of the events already waiting, since only that thread frees slots.
+     *
+     * @throws IllegalStateException If the dispatcher is shut down or its consumer has died.
+     * @param event The event to dispatch.
+     * @param type The descriptor of the event's class.
+     * @param plan The resolved dispatch plan of the event.
+     */
+    fun publish(event: Event, type: EventType<*>, plan: DispatchPlan<EventHook<in Event>>) {
+        var attempt = 0
+        while (true) {
+            check(running) { "The ring buffer dispatcher is shut down" }
+            check(consuming) { "The ring buffer consumer has stopped" }
+
+            val position = tail.get()
+            val index = (position and mask).toInt()
+            val available = sequences.get(index) - position
+            if (available == 0L && tail.compareAndSet(position, position + 1)) {
+                val slot = slots[index]
+                slot.event = event
+                slot.type = type
+                slot.plan = plan
+                sequences.lazySet(index, position + 1)
+                return
+            }
+            if (available < 0) {
+                if (Thread.currentThread() === consumer) {
+                    dispatchGuarded(event, type, plan)
+                    return
+                }
+                WaitStrategy.YIELD.idle(attempt++)
+            }
+        }
+    }
+
+    /**
+     * Stops accepting events, waits for the consumer to drain what was already published and stops it.
+     *
+     * @param timeout The maximum time to wait for the consumer.
+     * @param unit The unit of the timeout.
+     * @return true if the consumer stopped within the timeout, false otherwise.
+     */
+    fun shutdown(timeout: Long, unit: TimeUnit): Boolean {
+        running = false
+        consumer.join(unit.toMillis(timeout))
+        return !consumer.isAlive
+    }
+
+    private fun drain() {
+        try {
+            consume()
+        } finally {
+            consuming = false
+        }
+    }
+
+    private fun consume() {
+        var attempt = 0
+        while (true) {
+            var drained = 0
+            while (drained < batchSize) {
+                val index = (head and mask).toInt()
+                if (sequences.get(index) != head + 1) break
+
+                val slot = slots[index]
+                val event = slot.event!!
+                val type = slot.type!!
+                val plan = slot.plan!!
+                slot.event = null
+                slot.type = null
+                slot.plan = null
+                sequences.lazySet(index, head + size)
+                head++
+                drained++
+
+                dispatchGuarded(event, type, plan)
+            }
+
+            if (drained > 0) {
+                attempt = 0
+            } else if (!running && tail.get() == head) {
+                return
+            } else {
+                waitStrategy.idle(attempt++)
+            }
+        }
+    }
+
+    private fun dispatchGuarded(event: Event, type: EventType<*>, plan: DispatchPlan<EventHook<in Event>>) {
+        try {
+            dispatch(event, type, plan)
+        } catch (e: Throwable) {
+            EventBus.logger.error("Exception while dispatching event: ${type.name}", e)
+        }
+    }
+
+    private class Slot {
+        var event: Event? = null
+        var type: EventType<*>? = null
+        var plan: DispatchPlan<EventHook<in Event>>? = null
+    }
+}
@@ -0,0 +1,135 @@
+package net.rk4z.beacon
+
+import java.io.File
+import java.net.URLClassLoader
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.Paths
+import java.nio.file.StandardCopyOption
+import java.security.MessageDigest
+import java.util.Properties
+
+/**
+ * Persists the results of classpath scans so that later boots with an unchanged classpath can
+ * skip scanning.
+ *
+ * The cache is keyed by a fingerprint of every classpath entry's path, size and modification time.
+ * Directory entries are fingerprinted by the files they contain. A cache written for a different
+ * fingerprint is ignored and replaced on the next save.
+ *
+ * @param file The cache file.
+ * @param classLoader The class loader whose classpath is fingerprinted.
+ */
+internal class ScanCache(private val file: Path, classLoader: ClassLoader) {
+    private val fingerprint: String = fingerprint(classLoader)
+    private val packages: MutableMap<String, List<String>> = load()
+    private var isDirty = false
+
+    /**
+     * Returns the cached handler class names of a package.
+     *
+     * @param packageName The scanned package.
+     * @return The class names, or null if the package is not cached.
+     */
+    @Synchronized
+    fun get(packageName: String): List<String>? = packages[packageName]
+
+    /**
+     * Records the handler class names found by scanning a package.
+     *
+     * @param packageName The scanned package.
+     * @param classNames The class names found.
+     */
+    @Synchronized
+    fun put(packageName: String, classNames: List<String>) {
+        packages[packageName] = classNames
+        isDirty = true
+    }
+
+    /**
+     * Writes the cache to disk if anything changed.
+     */
+    @Synchronized
+    fun save() {
+        if (!isDirty) return
+
+        val properties = Properties()
+        properties.setProperty(FINGERPRINT_KEY, fingerprint)
+        for ((packageName, classNames) in packages) {
+            properties.setProperty(PACKAGE_PREFIX + packageName, classNames.joinToString(","))
+        }
+
+        try {
+            file.toAbsolutePath().parent?.let { Files.createDirectories(it) }
+            val temp = Files.createTempFile(file.toAbsolutePath().parent, file.fileName.toString(), ".tmp")
+            Files.newOutputStream(temp).use { properties.store(it, "Beacon classpath scan cache") }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE)
+            isDirty = false
+        } catch (e: Exception) {
+            EventBus.logger.warn("Failed to write scan cache: $file", e)
+        }
+    }
+
+    private fun load(): MutableMap<String, List<String>> {
+        val packages = mutableMapOf<String, List<String>>()
+        if (!Files.exists(file)) return packages
+
+        try {
+            val properties = Properties()
+            Files.newInputStream(file).use { properties.load(it) }
+            if (properties.getProperty(FINGERPRINT_KEY) != fingerprint) {
+                EventBus.logger.info("Classpath changed, ignoring scan cache: $file")
+                return packages
+            }
+
+            for (key in properties.stringPropertyNames()) {
+                if (key.startsWith(PACKAGE_PREFIX)) {
+                    val value = properties.getProperty(key)
+                    packages[key.removePrefix(PACKAGE_PREFIX)] = if (value.isEmpty()) emptyList() else value.split(",")
+                }
+            }
+        } catch (e: Exception) {
+            EventBus.logger.warn("Failed to read scan cache: $file", e)
+        }
+        return packages
+    }
+
+    private companion object {
+        const val FINGERPRINT_KEY = "fingerprint"
+        const val PACKAGE_PREFIX = "package."
+
+        fun fingerprint(classLoader: ClassLoader): String {
+            val entries = LinkedHashSet<String>()
+            System.getProperty("java.class.path").orEmpty()
+                .split(File.pathSeparator)
+                .filter { it.isNotEmpty() }
+                .forEach { entries.add(it) }
+
+            var loader: ClassLoader? = classLoader
+            while (loader != null) {
+                if (loader is URLClassLoader) {
+                    loader.urLs.filter { it.protocol == "file" }.forEach { entries.add(Paths.get(it.toURI()).toString()) }
+                }
+                loader = loader.parent
+            }
+
+            val digest = MessageDigest.getInstance("SHA-256")
+            for (entry in entries) {
+                val path = Paths.get(entry)
+                digest.update(entry.toByteArray())
+                if (Files.isDirectory(path)) {
+                    Files.walk(path).use { files ->
+                        files.filter { Files.isRegularFile(it) }.sorted().forEach { update(digest, it) }
+                    }
+                } else if (Files.exists(path)) {
+                    update(digest, path)
+                }
+            }
+            return digest.digest().joinToString("") { "%02x".format(it) }
+        }
+
+        private fun update(digest: MessageDigest, path: Path) {
+            digest.update("$path:${Files.size(path)}:${Files.getLastModifiedTime(path).toMillis()};".toByteArray())
+        }
+    }
+}
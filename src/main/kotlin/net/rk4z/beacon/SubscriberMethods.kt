@@ -0,0 +1,204 @@
+@file:Suppress("UNCHECKED_CAST")
+
+package net.rk4z.beacon
+
+import java.lang.invoke.LambdaMetafactory
+import java.lang.invoke.MethodHandle
+import java.lang.invoke.MethodHandles
+import java.lang.invoke.MethodType
+import java.lang.reflect.Method
+import java.lang.reflect.Modifier
+
+/**
+ * A [Subscribe] method and the generated factory of its handler.
+ * The factory is spun on first use, so discovering a method stays a pure reflection read.
+ *
+ * @property method The annotated method.
+ * @property eventClass The event class of the method's parameter.
+ * @property subscribe The annotation of the method.
+ * @property isReturnable Whether the method is bound as a [ReturnableHandler].
+ */
+internal class SubscriberMethod(
+    val method: Method,
+    val eventClass: Class<*>,
+    val subscribe: Subscribe,
+    val isReturnable: Boolean
+) {
+    private val isStatic = Modifier.isStatic(method.modifiers)
+    private val factory: MethodHandle by lazy { SubscriberMethods.factoryOf(method, eventClass, isReturnable) }
+
+    val timeout: Long?
+        get() = subscribe.timeout.takeIf { it >= 0 }
+
+    /**
+     * Creates the generated handler of the method for [instance].
+     *
+     * @param instance The handler instance to bind the method to.
+     * @return A [Handler] or, for returnable methods, a [ReturnableHandler].
+     */
+    fun bind(instance: IEventHandler): Any {
+        return if (isStatic) factory.invokeWithArguments() else factory.invokeWithArguments(instance)
+    }
+
+    /**
+     * Creates the hook of a non-returnable method for [instance].
+     *
+     * @param instance The handler instance to bind the method to.
+     * @return The hook.
+     */
+    fun hook(instance: IEventHandler): EventHook<Any> {
+        return EventHook(
+            instance,
+            bind(instance) as Handler<Any>,
+            subscribe.ignoresCondition,
+            subscribe.priority,
+            null,
+            timeout,
+            subscribe.receivesCanceled
+        )
+    }
+
+    /**
+     * Binds the method to [instance] and returns the registration of its hook, so a handler's
+     * methods can all be bound before any of them is registered.
+     *
+     * @param instance The handler instance to bind the method to.
+     * @return Registers the hook and returns its subscription.
+     */
+    fun prepare(instance: IEventHandler): () -> Subscription {
+        if (!isReturnable) {
+            val hook = hook(instance)
+            return { EventBus.registerEventHook(eventClass as Class<Any>, hook) }
+        }
+
+        val hook = ReturnableEventHook(
+            instance,
+            bind(instance) as ReturnableHandler<ReturnableEvent<Any?>, Any?>,
+            subscribe.ignoresCondition,
+            subscribe.priority,
+            null,
+            timeout
+        )
+        return { EventBus.registerReturnableEventHook(eventClass as Class<ReturnableEvent<Any?>>, hook) }
+    }
+}
+
+/**
+ * Discovers the [Subscribe] methods of handler classes.
+ *
+ * Each class is inspected once and the result is cached in a [ClassValue]. Every method is bound
+ * through [LambdaMetafactory] on first use, so the generated handler calls it directly instead of
+ * going through [Method.invoke]. Methods of classes the bus cannot define a lambda class for, such
+ * as handlers loaded by another class loader, are called through their [MethodHandle] instead.
+ */
+internal object SubscriberMethods {
+    private val bindHandle: MethodHandle = MethodHandles.lookup().findStatic(
+        SubscriberMethods::class.java,
+        "bindHandle",
+        MethodType.methodType(Any::class.java, MethodHandle::class.java, Boolean::class.javaPrimitiveType, Any::class.java)
+    )
+    private val erasedHandleType = MethodType.methodType(Any::class.java, Any::class.java)
+
+    private val methods = object : ClassValue<List<SubscriberMethod>>() {
+        override fun computeValue(type: Class<*>): List<SubscriberMethod> = discover(type)
+    }
+
+    /**
+     * Returns the [Subscribe] methods of the given class and its superclasses.
+     *
+     * @param type The handler class.
+     * @return The methods in a deterministic order.
+     */
+    fun of(type: Class<*>): List<SubscriberMethod> = methods.get(type)
+
+    private fun discover(type: Class<*>): List<SubscriberMethod> {
+        val result = ArrayList<SubscriberMethod>()
+        val seen = HashSet<String>()
+        var current: Class<*>? = type
+        while (current != null && current != Any::class.java) {
+            val declared = current.declaredMethods
+                .filter { !it.isBridge && !it.isSynthetic && it.isAnnotationPresent(Subscribe::class.java) }
+                .sortedWith(compareBy<Method> { it.name }.thenBy { it.parameterTypes.joinToString { p -> p.name } })
+
+            for (method in declared) {
+                if (seen.add(method.name + method.parameterTypes.contentToString())) {
+                    result.add(describe(method))
+                }
+            }
+            current = current.superclass
+        }
+        return result
+    }
+
+    private fun describe(method: Method): SubscriberMethod {
+        require(method.parameterCount == 1) {
+            "@Subscribe method ${method.declaringClass.name}.${method.name} must take exactly one parameter"
+        }
+
+        val eventClass = method.parameterTypes[0]
+        val isReturnable = ReturnableEvent::class.java.isAssignableFrom(eventClass) && method.returnType != Void.TYPE
+        return SubscriberMethod(method, eventClass, method.getAnnotation(Subscribe::class.java), isReturnable)
+    }
+
+    /**
+     * Spins the [LambdaMetafactory] factory of a handler implementation calling [method].
+     *
+     * The lambda class is defined next to the owner, which needs a lookup with full privilege
+     * access. When the owner lives in another module than the bus, for example because it was
+     * loaded by a different class loader, the factory wraps the method's handle instead.
+     *
+     * @return A handle taking the owner instance (none for static methods) and returning the handler.
+     */
+    fun factoryOf(method: Method, eventClass: Class<*>, isReturnable: Boolean): MethodHandle {
+        val owner = method.declaringClass
+        val isStatic = Modifier.isStatic(method.modifiers)
+
+        val lookup = MethodHandles.privateLookupIn(owner, MethodHandles.lookup())
+        val implementation = lookup.unreflect(method)
+        if (!lookup.hasFullPrivilegeAccess()) {
+            return if (isStatic) {
+                MethodHandles.insertArguments(bindHandle, 0, implementation, isReturnable, null)
+            } else {
+                MethodHandles.insertArguments(bindHandle, 0, implementation, isReturnable)
+            }
+        }
+
+        val samType: Class<*>
+        val erasedType: MethodType
+        val instantiatedType: MethodType
+        if (isReturnable) {
+            samType = ReturnableHandler::class.java
+            erasedType = MethodType.methodType(Any::class.java, ReturnableEvent::class.java)
+            instantiatedType = MethodType.methodType(method.returnType, eventClass).wrap().changeParameterType(0, eventClass)
+        } else {
+            samType = Handler::class.java
+            erasedType = MethodType.methodType(Void.TYPE, Any::class.java)
+            instantiatedType = MethodType.methodType(Void.TYPE, eventClass)
+        }
+
+        val factoryType = if (isStatic) MethodType.methodType(samType) else MethodType.methodType(samType, owner)
+        val site = LambdaMetafactory.metafactory(
+            lookup,
+            "handle",
+            factoryType,
+            erasedType,
+            implementation,
+            instantiatedType
+        )
+        return site.target
+    }
+
+    /**
+     * Creates a handler that invokes [implementation], bound to [instance] unless the method is static.
+     */
+    @JvmStatic
+    private fun bindHandle(implementation: MethodHandle, isReturnable: Boolean, instance: Any?): Any {
+        val target = (if (instance == null) implementation else implementation.bindTo(instance)).asType(erasedHandleType)
+        // Both call sites must keep the (Object)Object descriptor of the adapted handle, hence the casts.
+        return if (isReturnable) {
+            ReturnableHandler<ReturnableEvent<Any?>, Any?> { event -> target.invokeExact(event as Any) }
+        } else {
+            Handler<Any> { event -> target.invokeExact(event) as Any? }
+        }
+    }
+}
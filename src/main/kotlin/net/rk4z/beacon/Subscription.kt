@@ -0,0 +1,66 @@
+@file:Suppress("unused", "MemberVisibilityCanBePrivate")
+
+package net.rk4z.beacon
+
+/**
+ * A handle to a registered hook.
+ *
+ * Closing the handle removes the hook from the bus. Removal only rebuilds the registry entry of
+ * [eventClass], and later posts no longer reference the hook, so it can be garbage collected.
+ *
+ * @property eventClass The class or interface the hook subscribes to.
+ * @property owner The event handler that owns the hook.
+ * @property priority The priority of the hook.
+ */
+class Subscription internal constructor(
+    val eventClass: Class<*>,
+    @JvmField internal val hook: Any,
+    val owner: IEventHandler,
+    val priority: Priority,
+    private val store: SubscriptionStore
+) : AutoCloseable {
+    /**
+     * The global registration order, assigned when the hook is published.
+     */
+    @JvmField
+    internal var order: Long = -1
+
+    /**
+     * Whether the hook is currently registered.
+     */
+    @Volatile
+    var isActive: Boolean = false
+        internal set
+
+    /**
+     * Removes the hook from the bus.
+     *
+     * @return true if the hook was removed, false if it was not registered.
+     */
+    fun unsubscribe(): Boolean = store.remove(this)
+
+    override fun close() {
+        unsubscribe()
+    }
+}
+
+/**
+ * A registry that can remove the subscriptions it handed out.
+ */
+internal interface SubscriptionStore {
+    /**
+     * Removes a single subscription.
+     *
+     * @param subscription The subscription to remove.
+     * @return true if it was removed, false if it was not registered.
+     */
+    fun remove(subscription: Subscription): Boolean
+
+    /**
+     * Removes every subscription owned by [owner], rebuilding each affected event class once.
+     *
+     * @param owner The owning event handler.
+     * @return The number of removed subscriptions.
+     */
+    fun removeOwner(owner: IEventHandler): Int
+}
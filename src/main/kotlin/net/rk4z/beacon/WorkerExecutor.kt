@@ -0,0 +1,45 @@
+package net.rk4z.beacon
+
+import java.util.concurrent.AbstractExecutorService
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.TimeUnit
+
+/**
+ * Runs tasks on [delegate] and marks the threads running them as workers of the bus.
+ *
+ * A [BoundedExecutor] only frees queue slots as workers pick up tasks, so it uses the mark to keep
+ * a post made from inside a task from waiting for a slot that only that worker could free.
+ */
+internal class WorkerExecutor(private val delegate: ExecutorService) : AbstractExecutorService() {
+    override fun execute(command: Runnable) {
+        delegate.execute {
+            val nested = working.get() == true
+            working.set(true)
+            try {
+                command.run()
+            } finally {
+                if (!nested) working.remove()
+            }
+        }
+    }
+
+    override fun shutdown() = delegate.shutdown()
+
+    override fun shutdownNow(): List<Runnable> = delegate.shutdownNow()
+
+    override fun isShutdown(): Boolean = delegate.isShutdown
+
+    override fun isTerminated(): Boolean = delegate.isTerminated
+
+    override fun awaitTermination(timeout: Long, unit: TimeUnit): Boolean = delegate.awaitTermination(timeout, unit)
+
+    companion object {
+        private val working = ThreadLocal<Boolean>()
+
+        /**
+         * Whether the current thread is running a task of a [WorkerExecutor].
+         */
+        val isWorkerThread: Boolean
+            get() = working.get() == true
+    }
+}
@@ -0,0 +1,93 @@
+package net.rk4z.beacon
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.ScheduledThreadPoolExecutor
+import java.util.concurrent.TimeUnit
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertTrue
+
+class BoundedExecutorTest {
+    private val workers = WorkerExecutor(Executors.newFixedThreadPool(2))
+    private val scheduler = ScheduledThreadPoolExecutor(1).apply { removeOnCancelPolicy = true }
+
+    private fun shutdown() {
+        scheduler.shutdownNow()
+        workers.shutdownNow()
+    }
+
+    @Test
+    fun blockingPostFromWorkerDoesNotDeadlock() {
+        val queue = BoundedExecutor(workers, scheduler, 2, OverflowPolicy.BLOCK)
+        val inner = CountDownLatch(30)
+
+        try {
+            // Both workers post more tasks than the queue holds while no other worker is free.
+            repeat(2) {
+                queue.execute {
+                    repeat(15) { queue.execute { inner.countDown() } }
+                }
+            }
+
+            assertTrue(inner.await(10, TimeUnit.SECONDS), "${inner.count} inner tasks never ran")
+            assertEquals(0, queue.stats().queued)
+        } finally {
+            shutdown()
+        }
+    }
+
+    @Test
+    fun delayedPostsAreAdmittedWhenPosted() {
+        val queue = BoundedExecutor(workers, scheduler, 2, OverflowPolicy.FAIL)
+
+        try {
+            repeat(2) { queue.schedule({}, 1, TimeUnit.HOURS) }
+            assertEquals(2, queue.stats().queued)
+
+            assertFailsWith<QueueOverflowException> { queue.schedule({}, 1, TimeUnit.HOURS) }
+            assertEquals(1L, queue.stats().overflowed)
+            assertEquals(2, scheduler.queue.size)
+        } finally {
+            shutdown()
+        }
+    }
+
+    @Test
+    fun discardedDelayedPostReleasesItsTimer() {
+        val queue = BoundedExecutor(workers, scheduler, 2, OverflowPolicy.DROP_OLDEST)
+        val ran = CountDownLatch(1)
+
+        try {
+            repeat(2) { queue.schedule({}, 1, TimeUnit.HOURS) }
+            queue.schedule({ ran.countDown() }, 0, TimeUnit.MILLISECONDS)
+
+            assertTrue(ran.await(10, TimeUnit.SECONDS), "The newest delayed task never ran")
+            assertEquals(1, scheduler.queue.size)
+            assertEquals(1, queue.stats().queued)
+        } finally {
+            shutdown()
+        }
+    }
+
+    @Test
+    fun pendingDelayedPostDoesNotPinFinishedTasks() {
+        val queue = BoundedExecutor(workers, scheduler, 4, OverflowPolicy.DROP_OLDEST)
+
+        try {
+            queue.schedule({}, 1, TimeUnit.HOURS)
+            // Each post finishes before the next, so the queue stays below its capacity.
+            repeat(1_000) {
+                val ran = CountDownLatch(1)
+                queue.execute { ran.countDown() }
+                assertTrue(ran.await(10, TimeUnit.SECONDS), "Task $it never ran")
+            }
+
+            assertEquals(1, queue.tracked)
+            assertEquals(1, queue.stats().queued)
+        } finally {
+            shutdown()
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package net.rk4z.beacon
+
+import java.util.concurrent.Executor
+import java.util.concurrent.TimeUnit
+import kotlin.test.Test
+import kotlin.test.assertEquals
+
+/**
+ * Runs [block] with [queue] as the asynchronous queue of the [EventBus] and restores the previous
+ * queue afterwards, leaving it unset again if it was unset before.
+ */
+internal fun <R> withAsyncQueue(queue: Executor, block: () -> R): R {
+    val field = EventBus::class.java.getDeclaredField("asyncQueue")
+    val previous = field.get(null)
+    EventBus.asyncQueue = queue
+    try {
+        return block()
+    } finally {
+        field.set(null, previous)
+    }
+}
+
+class CancellationTest {
+    private class CancelableTestEvent : CancelableEvent()
+
+    private class Owner : IEventHandler
+
+    @Test
+    fun preCancelledFutureEventReachesObservers() = withAsyncQueue(Executor { it.run() }) {
+        val owner = Owner()
+        val calls = mutableListOf<String>()
+        EventBus.registerEventHook(CancelableTestEvent::class.java, EventHook(owner, Handler { calls.add("regular") }, false))
+        EventBus.registerEventHook(
+            CancelableTestEvent::class.java,
+            EventHook(owner, Handler { calls.add("observer") }, false, Priority.HIGH, receivesCanceled = true)
+        )
+
+        try {
+            val event = CancelableTestEvent().apply { cancel() }
+            EventBus.postAsyncFuture(event).get(10, TimeUnit.SECONDS)
+            EventBus.postFullSync(event)
+
+            assertEquals(listOf("observer", "observer"), calls)
+        } finally {
+            EventBus.unregisterHandler(owner)
+        }
+    }
+}
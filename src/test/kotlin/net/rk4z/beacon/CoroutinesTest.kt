@@ -0,0 +1,64 @@
+package net.rk4z.beacon
+
+import kotlinx.coroutines.Dispatchers
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertTrue
+
+class CoroutinesTest {
+    private abstract class MessageEvent : Event() {
+        abstract val text: String
+    }
+
+    private class PlainMessageEvent(override val text: String) : MessageEvent()
+
+    private class PooledMessageEvent : MessageEvent(), PooledEvent {
+        override var text: String = ""
+
+        override fun reset() {
+            text = ""
+        }
+    }
+
+    private class Owner : IEventHandler
+
+    @Test
+    fun suspendHandlerRejectsPooledEventClass() {
+        assertFailsWith<IllegalArgumentException> {
+            Owner().suspendHandler<PooledMessageEvent> {}
+        }
+    }
+
+    @Test
+    fun flowRejectsPooledEventClass() {
+        assertFailsWith<IllegalArgumentException> {
+            EventBus.flowOf<PooledMessageEvent>()
+        }
+    }
+
+    @Test
+    fun suspendHandlerSkipsPooledSubclassEvents() {
+        val owner = Owner()
+        val received = CopyOnWriteArrayList<String>()
+        val delivered = CountDownLatch(1)
+        owner.suspendHandler<MessageEvent>(Dispatchers.Default) { event ->
+            received.add(event.text)
+            delivered.countDown()
+        }
+
+        try {
+            val pool = EventPool { PooledMessageEvent() }
+            EventBus.postFullSyncPooled(pool) { it.text = "pooled" }
+            EventBus.postFullSync(PlainMessageEvent("plain"))
+
+            assertTrue(delivered.await(10, TimeUnit.SECONDS))
+            assertEquals(listOf("plain"), received.toList())
+        } finally {
+            EventBus.unregisterHandler(owner)
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package net.rk4z.beacon
+
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.Flow
+import java.util.concurrent.TimeUnit
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertTrue
+
+class EventPublisherTest {
+    private open class TickEvent(val tick: Int) : Event()
+
+    private class PooledTickEvent : TickEvent(-1), PooledEvent {
+        override fun reset() {}
+    }
+
+    @Test
+    fun rejectsPooledEventClass() {
+        val executor = Executors.newSingleThreadExecutor()
+        try {
+            assertFailsWith<IllegalArgumentException> {
+                EventPublisher(PooledTickEvent::class.java, executor, 16, Priority.NORMAL)
+            }
+        } finally {
+            executor.shutdownNow()
+        }
+    }
+
+    @Test
+    fun skipsPooledSubclassEvents() {
+        val executor = Executors.newSingleThreadExecutor()
+        val publisher = EventPublisher(TickEvent::class.java, executor, 16, Priority.NORMAL)
+        val received = CopyOnWriteArrayList<Int>()
+        val delivered = CountDownLatch(1)
+
+        try {
+            publisher.subscribe(object : Flow.Subscriber<TickEvent> {
+                override fun onSubscribe(subscription: Flow.Subscription) = subscription.request(Long.MAX_VALUE)
+
+                override fun onNext(item: TickEvent) {
+                    received.add(item.tick)
+                    delivered.countDown()
+                }
+
+                override fun onError(throwable: Throwable) {}
+
+                override fun onComplete() {}
+            })
+
+            EventBus.postFullSyncPooled(EventPool { PooledTickEvent() }) {}
+            EventBus.postFullSync(TickEvent(1))
+
+            assertTrue(delivered.await(10, TimeUnit.SECONDS))
+            assertEquals(listOf(1), received.toList())
+        } finally {
+            publisher.close()
+            executor.shutdownNow()
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package net.rk4z.beacon
+
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Executor
+import java.util.concurrent.TimeUnit
+import kotlin.test.Test
+import kotlin.test.assertFailsWith
+import kotlin.test.assertTrue
+
+class FutureTest {
+    private class AsyncTestEvent : Event()
+
+    private class ReturnableTestEvent : ReturnableEvent<String>()
+
+    private class Owner : IEventHandler
+
+    private val failingCondition = { throw IllegalStateException("condition failed") }
+
+    @Test
+    fun throwingConditionFailsAsyncFuture() = withAsyncQueue(Executor { it.run() }) {
+        val owner = Owner()
+        EventBus.registerEventHook(
+            AsyncTestEvent::class.java,
+            EventHook(owner, Handler<AsyncTestEvent> {}, false, condition = failingCondition)
+        )
+
+        try {
+            val future = EventBus.postAsyncFuture(AsyncTestEvent())
+
+            assertTrue(future.isDone)
+            val failure = assertFailsWith<ExecutionException> { future.get(10, TimeUnit.SECONDS) }
+            assertTrue(failure.cause is IllegalStateException)
+        } finally {
+            EventBus.unregisterHandler(owner)
+        }
+    }
+
+    @Test
+    fun throwingConditionFailsReturnableFuture() = withAsyncQueue(Executor { it.run() }) {
+        val owner = Owner()
+        EventBus.registerReturnableEventHook(
+            ReturnableTestEvent::class.java,
+            ReturnableEventHook(owner, ReturnableHandler<ReturnableTestEvent, String> { "result" }, false, condition = failingCondition)
+        )
+
+        try {
+            val future = EventBus.postReturnableFuture(ReturnableTestEvent())
+
+            assertTrue(future.isDone)
+            val failure = assertFailsWith<ExecutionException> { future.get(10, TimeUnit.SECONDS) }
+            assertTrue(failure.cause is IllegalStateException)
+        } finally {
+            EventBus.unregisterHandler(owner)
+        }
+    }
+}
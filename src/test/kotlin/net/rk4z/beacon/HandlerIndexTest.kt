@@ -0,0 +1,72 @@
+package net.rk4z.beacon
+
+import net.rk4z.beacon.processor.HandlerIndexProcessor
+import java.net.URL
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.Collections
+import java.util.Enumeration
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertNull
+
+class HandlerIndexTest {
+    class IndexedHandler : IEventHandler
+
+    /**
+     * Reports [roots] as the roots containing the package and [indexes] as the handler indexes
+     * found on the classpath. Classes are loaded by the parent.
+     */
+    private class RootsClassLoader(
+        private val packagePath: String,
+        private val roots: List<String>,
+        private val indexes: List<URL>,
+        parent: ClassLoader
+    ) : ClassLoader(parent) {
+        override fun getResources(name: String): Enumeration<URL> {
+            return when (name) {
+                HandlerIndexProcessor.INDEX_RESOURCE -> Collections.enumeration(indexes)
+                packagePath -> Collections.enumeration(roots.map { URL(it + packagePath) })
+                else -> Collections.emptyEnumeration()
+            }
+        }
+    }
+
+    private val packageName = IndexedHandler::class.java.packageName
+    private val packagePath = packageName.replace('.', '/')
+
+    private fun index(root: Path): URL {
+        val file = root.resolve(HandlerIndexProcessor.INDEX_RESOURCE)
+        Files.createDirectories(file.parent)
+        Files.writeString(file, IndexedHandler::class.java.name + "\n")
+        return file.toUri().toURL()
+    }
+
+    @Test
+    fun usesIndexWhenEveryRootHasOne() {
+        val root = Files.createTempDirectory("beacon-index")
+        val rootUrl = root.toUri().toURL().toExternalForm()
+        val loader = RootsClassLoader(packagePath, listOf(rootUrl), listOf(index(root)), javaClass.classLoader)
+
+        assertEquals(listOf(IndexedHandler::class.java), HandlerIndex.handlersIn(packageName, loader))
+    }
+
+    @Test
+    fun scansWhenPackageIsInRootWithoutIndex() {
+        val root = Files.createTempDirectory("beacon-index")
+        val rootUrl = root.toUri().toURL().toExternalForm()
+        val jarUrl = "jar:" + root.resolve("unindexed.jar").toUri().toURL().toExternalForm() + "!/"
+        val loader = RootsClassLoader(packagePath, listOf(rootUrl, jarUrl), listOf(index(root)), javaClass.classLoader)
+
+        assertNull(HandlerIndex.handlersIn(packageName, loader))
+    }
+
+    @Test
+    fun scansWhenNoIndexExists() {
+        val root = Files.createTempDirectory("beacon-index")
+        val rootUrl = root.toUri().toURL().toExternalForm()
+        val loader = RootsClassLoader(packagePath, listOf(rootUrl), emptyList(), javaClass.classLoader)
+
+        assertNull(HandlerIndex.handlersIn(packageName, loader))
+    }
+}
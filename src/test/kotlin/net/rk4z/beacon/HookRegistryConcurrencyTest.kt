@@ -0,0 +1,74 @@
+package net.rk4z.beacon
+
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.LongAdder
+import kotlin.concurrent.thread
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+class HookRegistryConcurrencyTest {
+    private class StressEvent : Event()
+
+    private class StressHandler : IEventHandler
+
+    @Test
+    fun registersAndPostsConcurrently() {
+        val handlers = List(REGISTRARS) { StressHandler() }
+        val errors = ConcurrentLinkedQueue<Throwable>()
+        val calls = LongAdder()
+        val start = CountDownLatch(1)
+        val registering = AtomicBoolean(true)
+
+        try {
+            val registrars = handlers.map { handler ->
+                thread {
+                    try {
+                        start.await()
+                        repeat(HOOKS_PER_REGISTRAR) {
+                            EventBus.registerEventHook(StressEvent::class.java, EventHook(handler, Handler { calls.increment() }, false))
+                        }
+                    } catch (e: Throwable) {
+                        errors.add(e)
+                    }
+                }
+            }
+            val posters = List(POSTERS) {
+                thread {
+                    try {
+                        start.await()
+                        while (registering.get()) {
+                            EventBus.postFullSync(StressEvent())
+                        }
+                    } catch (e: Throwable) {
+                        errors.add(e)
+                    }
+                }
+            }
+
+            start.countDown()
+            registrars.forEach { it.join() }
+            registering.set(false)
+            posters.forEach { it.join() }
+
+            assertTrue(errors.isEmpty(), "Unexpected exceptions: $errors")
+
+            val total = REGISTRARS * HOOKS_PER_REGISTRAR
+            assertEquals(total, EventBus.registry.planFor(EventType.of(StressEvent::class.java)).size)
+
+            calls.reset()
+            EventBus.postFullSync(StressEvent())
+            assertEquals(total.toLong(), calls.sum())
+        } finally {
+            handlers.forEach { EventBus.unregisterHandler(it) }
+        }
+    }
+
+    private companion object {
+        const val REGISTRARS = 8
+        const val HOOKS_PER_REGISTRAR = 250
+        const val POSTERS = 4
+    }
+}
@@ -0,0 +1,57 @@
+package net.rk4z.beacon
+
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+class LazyHandlerTest {
+    class LazyEvent : Event() {
+        var calls = 0
+    }
+
+    class DeferredHandler : IEventHandler {
+        init {
+            constructed.incrementAndGet()
+        }
+
+        @Subscribe
+        fun onEvent(event: LazyEvent) {
+            event.calls++
+        }
+
+        companion object {
+            val constructed = AtomicInteger()
+        }
+    }
+
+    private fun install() {
+        val type = DeferredHandler::class.java
+        val methods = SubscriberMethods.of(type)
+        assertTrue(LazyHandler.supports(type, methods))
+        LazyHandler(type, methods).install()
+    }
+
+    @Test
+    fun removesStubsOfHandlerThatWasNeverConstructed() {
+        DeferredHandler.constructed.set(0)
+        install()
+
+        assertEquals(1, EventBus.unregisterHandlers(DeferredHandler::class.java))
+        assertEquals(0, EventBus.postFullSync(LazyEvent()).calls)
+        assertEquals(0, DeferredHandler.constructed.get())
+    }
+
+    @Test
+    fun removesHooksOfConstructedHandlerByClass() {
+        DeferredHandler.constructed.set(0)
+        install()
+
+        assertEquals(1, EventBus.postFullSync(LazyEvent()).calls)
+        assertEquals(1, DeferredHandler.constructed.get())
+
+        assertEquals(1, EventBus.unregisterHandlers(DeferredHandler::class.java))
+        assertEquals(0, EventBus.postFullSync(LazyEvent()).calls)
+        assertEquals(1, DeferredHandler.constructed.get())
+    }
+}
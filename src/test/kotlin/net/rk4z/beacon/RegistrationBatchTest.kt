@@ -0,0 +1,64 @@
+package net.rk4z.beacon
+
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
+
+class RegistrationBatchTest {
+    private class BatchedEvent : Event()
+
+    private class BatchedReturnableEvent : ReturnableEvent<String>()
+
+    private class Owner : IEventHandler
+
+    private fun hookCount(): Int = EventBus.registry.planFor(EventType.of(BatchedEvent::class.java)).size
+
+    @Test
+    fun committingNestedLevelBeforeCloseKeepsOuterBatchOpen() {
+        val owner = Owner()
+        try {
+            EventBus.openBatch().use { outer ->
+                EventBus.registerEventHook(BatchedEvent::class.java, EventHook(owner, Handler {}, false))
+
+                EventBus.openBatch().use { inner ->
+                    EventBus.registerEventHook(BatchedEvent::class.java, EventHook(owner, Handler {}, false))
+                    inner.commit()
+                    assertFalse(inner.isOpen)
+                }
+
+                assertTrue(outer.isOpen)
+                EventBus.registerEventHook(BatchedEvent::class.java, EventHook(owner, Handler {}, false))
+                assertEquals(3, outer.size)
+                assertEquals(0, hookCount())
+            }
+
+            assertEquals(3, hookCount())
+        } finally {
+            EventBus.unregisterHandler(owner)
+        }
+    }
+
+    @Test
+    fun batchCollectsReturnableHooks() {
+        val owner = Owner()
+        val type = EventType.of(BatchedReturnableEvent::class.java)
+        try {
+            EventBus.batch {
+                EventBus.registerReturnableEventHook(
+                    BatchedReturnableEvent::class.java,
+                    ReturnableEventHook(owner, ReturnableHandler<BatchedReturnableEvent, String> { "first" }, false)
+                )
+                EventBus.registerReturnableEventHook(
+                    BatchedReturnableEvent::class.java,
+                    ReturnableEventHook(owner, ReturnableHandler<BatchedReturnableEvent, String> { "second" }, false)
+                )
+                assertEquals(0, EventBus.returnableRegistry.planFor(type).size)
+            }
+
+            assertEquals(2, EventBus.returnableRegistry.planFor(type).size)
+        } finally {
+            EventBus.unregisterHandler(owner)
+        }
+    }
+}
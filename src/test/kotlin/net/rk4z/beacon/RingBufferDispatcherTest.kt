@@ -0,0 +1,64 @@
+package net.rk4z.beacon
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+class RingBufferDispatcherTest {
+    private class SequencedEvent(val sequence: Int) : Event()
+
+    @Test
+    fun keepsDispatchingAfterDispatchThrows() {
+        val count = 1_000
+        val delivered = AtomicInteger()
+        val done = CountDownLatch(1)
+        val dispatcher = RingBufferDispatcher(8, WaitStrategy.YIELD) { event, _, _ ->
+            val sequence = (event as SequencedEvent).sequence
+            if (sequence % 2 == 0) throw IllegalStateException("Failing condition")
+
+            delivered.incrementAndGet()
+            if (sequence == count - 1) done.countDown()
+        }
+
+        try {
+            val type = EventType.of(SequencedEvent::class.java)
+            for (i in 0 until count) {
+                dispatcher.publish(SequencedEvent(i), type, DispatchPlan.EMPTY)
+            }
+
+            assertTrue(done.await(10, TimeUnit.SECONDS), "The consumer stopped dispatching")
+            assertEquals(count / 2, delivered.get())
+        } finally {
+            dispatcher.shutdown(10, TimeUnit.SECONDS)
+        }
+    }
+
+    @Test
+    fun hookPostingIntoFullBufferDoesNotDeadlock() {
+        val children = 32
+        val delivered = CountDownLatch(children)
+        val type = EventType.of(SequencedEvent::class.java)
+        lateinit var dispatcher: RingBufferDispatcher
+        dispatcher = RingBufferDispatcher(2, WaitStrategy.YIELD) { event, _, _ ->
+            if ((event as SequencedEvent).sequence < 0) {
+                // Runs on the consumer thread, which is the only one that frees slots.
+                for (i in 0 until children) {
+                    dispatcher.publish(SequencedEvent(i), type, DispatchPlan.EMPTY)
+                }
+            } else {
+                delivered.countDown()
+            }
+        }
+
+        try {
+            dispatcher.publish(SequencedEvent(-1), type, DispatchPlan.EMPTY)
+
+            assertTrue(delivered.await(10, TimeUnit.SECONDS), "${delivered.count} events were never dispatched")
+        } finally {
+            dispatcher.shutdown(10, TimeUnit.SECONDS)
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package net.rk4z.beacon
+
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertNotSame
+
+class PingEvent : Event() {
+    val received: MutableList<String> = mutableListOf()
+}
+
+class QueryEvent : ReturnableEvent<String>()
+
+/**
+ * Loaded by [SubscriberClassLoaderTest] through a separate class loader, like a plugin handler.
+ */
+class IsolatedHandler : IEventHandler {
+    @Subscribe
+    private fun onPrivatePing(event: PingEvent) {
+        event.received.add("private")
+    }
+
+    @Subscribe(priority = Priority.HIGH)
+    fun onPing(event: PingEvent) {
+        event.received.add("public")
+    }
+
+    @Subscribe
+    fun onQuery(event: QueryEvent): String = "isolated"
+
+    companion object {
+        @JvmStatic
+        @Subscribe(priority = Priority.HIGHEST)
+        fun onStaticPing(event: PingEvent) {
+            event.received.add("static")
+        }
+    }
+}
+
+class SubscriberClassLoaderTest {
+    /**
+     * Defines the given classes itself and delegates everything else to the parent.
+     */
+    private class IsolatingClassLoader(private val names: Set<String>, parent: ClassLoader) : ClassLoader(parent) {
+        override fun loadClass(name: String, resolve: Boolean): Class<*> {
+            if (name !in names) return super.loadClass(name, resolve)
+
+            synchronized(getClassLoadingLock(name)) {
+                findLoadedClass(name)?.let { return it }
+
+                val bytes = parent.getResourceAsStream(name.replace('.', '/') + ".class")!!.use { it.readBytes() }
+                return defineClass(name, bytes, 0, bytes.size)
+            }
+        }
+    }
+
+    @Test
+    fun subscribesHandlerFromSeparateClassLoader() {
+        val names = setOf(IsolatedHandler::class.java.name, IsolatedHandler.Companion::class.java.name)
+        val loader = IsolatingClassLoader(names, javaClass.classLoader)
+        val handlerClass = loader.loadClass(IsolatedHandler::class.java.name)
+        assertNotSame(IsolatedHandler::class.java, handlerClass)
+
+        val handler = handlerClass.getDeclaredConstructor().newInstance() as IEventHandler
+        try {
+            assertEquals(4, EventBus.subscribe(handler).size)
+
+            val event = EventBus.postFullSync(PingEvent())
+            assertEquals(listOf("private", "public", "static"), event.received)
+            assertEquals("isolated", EventBus.postReturnable(QueryEvent(), EventProcessingType.FULL_SYNC))
+        } finally {
+            EventBus.unregisterHandler(handler)
+        }
+    }
+}
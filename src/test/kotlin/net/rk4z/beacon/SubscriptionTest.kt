@@ -0,0 +1,53 @@
+package net.rk4z.beacon
+
+import java.lang.ref.WeakReference
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+
+class SubscriptionTest {
+    private open class BaseEvent : Event()
+
+    private class DerivedEvent : BaseEvent()
+
+    private class Owner : IEventHandler
+
+    @Test
+    fun unsubscribedHookIsNotKeptByCachedPlans() {
+        val hook = subscribeAndPost()
+
+        for (attempt in 0 until 20) {
+            if (hook.get() == null) break
+            System.gc()
+            Thread.sleep(10)
+        }
+        assertNull(hook.get(), "The removed hook is still reachable")
+    }
+
+    @Test
+    fun unregisteredHandlerStopsReceivingSubclassEvents() {
+        val owner = Owner()
+        var calls = 0
+        EventBus.registerEventHook(BaseEvent::class.java, EventHook(owner, Handler { calls++ }, false))
+
+        EventBus.postFullSync(DerivedEvent())
+        EventBus.unregisterHandler(owner)
+        EventBus.postFullSync(DerivedEvent())
+
+        assertEquals(1, calls)
+    }
+
+    private fun subscribeAndPost(): WeakReference<EventHook<*>> {
+        val hook = EventHook(Owner(), Handler<BaseEvent> {}, false)
+        val subscription = EventBus.registerEventHook(BaseEvent::class.java, hook)
+
+        // Cache plans for both the declared class and a subclass before removing the hook.
+        EventBus.postFullSync(BaseEvent())
+        EventBus.postFullSync(DerivedEvent())
+        assertTrue(subscription.unsubscribe())
+        assertFalse(subscription.isActive)
+        return WeakReference(hook)
+    }
+}